@@ -0,0 +1,18 @@
+/**
+ * Defines a modifier a building applies to all of the player's buildings
+ * while it stands (e.g. the Radar Dish's range boost).
+ * Several buildings of the same type apply it once; different types multiply.
+ */
+public class AuraStats {
+    public static final String RANGE = "range";
+    public static final String ROF = "rof";
+    public static final String DAMAGE = "damage";
+
+    public String stat;                 // "range", "rof" or "damage"
+    public double multiplier;           // e.g. 1.25 = +25%
+
+    public AuraStats() {
+        this.stat = RANGE;
+        this.multiplier = 1.0;
+    }
+}
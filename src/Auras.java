@@ -0,0 +1,108 @@
+import java.util.ArrayList;
+
+/**
+ * Modifiers that buildings apply to all of the player's buildings while they
+ * stand (auras in buildings.json, e.g. the Radar Dish's range boost).
+ *
+ * The stack (range, rate of fire and damage multipliers) only changes when an
+ * aura building is placed or destroyed, so it is recomputed then and written
+ * into every building's multipliers; a building placed later gets the current
+ * stack. Nothing is looked at per tick. Buildings of the same type apply
+ * their aura once, different types multiply.
+ *
+ * Responsibilities:
+ * - Track the placed buildings that have auras
+ * - Recompute the stack on placement and destruction and apply it to the buildings
+ * - Tell build mode the current multipliers for its range preview
+ */
+public class Auras {
+    private final GameManager game;
+    private final ArrayList<Building> sources = new ArrayList<>(); // placed buildings with auras
+    private final ArrayList<BuildingStats> sourceStats = new ArrayList<>(); // their stats, same order
+    private double range = 1, rof = 1, damage = 1; // current stack
+
+    public Auras(GameManager game) {
+        this.game = game;
+    }
+
+    /**
+     * A building joined the match: apply the current stack to it, and if it has auras, to everyone
+     */
+    public void placed(Building building) {
+        BuildingStats stats = game.getConfigManager().getBuildingStats(building.getClass().getSimpleName());
+        if (stats != null && !stats.auras.isEmpty()) {
+            sources.add(building);
+            sourceStats.add(stats);
+            recompute();
+        } else {
+            apply(building);
+        }
+    }
+
+    /**
+     * A building left the match: drop its auras from the stack
+     */
+    public void removed(Building building) {
+        int index = sources.indexOf(building);
+        if (index >= 0) {
+            sources.remove(index);
+            sourceStats.remove(index);
+            recompute();
+        }
+    }
+
+    private void recompute() {
+        double range = 1, rof = 1, damage = 1;
+        for (int i = 0; i < sourceStats.size(); i++) {
+            BuildingStats stats = sourceStats.get(i);
+            if (sourceStats.indexOf(stats) != i) {
+                continue; // this type already applied its auras
+            }
+            for (AuraStats aura : stats.auras) {
+                switch (aura.stat) {
+                    case AuraStats.RANGE:
+                        range *= aura.multiplier;
+                        break;
+                    case AuraStats.ROF:
+                        rof *= aura.multiplier;
+                        break;
+                    case AuraStats.DAMAGE:
+                        damage *= aura.multiplier;
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        this.range = range;
+        this.rof = rof;
+        this.damage = damage;
+        for (Instance instance : game.getInstances()) {
+            if (instance instanceof Building) {
+                apply((Building) instance);
+            }
+        }
+    }
+
+    // Buildings have no other source of these multipliers, so the stack replaces them
+    private void apply(Building building) {
+        building.rangeMult = range;
+        building.rofMult = rof;
+        building.damageMult = damage;
+    }
+
+    public double getRangeMultiplier() {
+        return range;
+    }
+
+    /**
+     * No auras (new match)
+     */
+    public void reset() {
+        sources.clear();
+        sourceStats.clear();
+        range = 1;
+        rof = 1;
+        damage = 1;
+    }
+}
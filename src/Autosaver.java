@@ -0,0 +1,115 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Periodic autosave of the running match.
+ * The match is captured at a tick boundary on the game thread (a copy of its
+ * primitive state, microseconds), the file write and fsync run on a virtual
+ * thread, so an autosave never holds up a frame.
+ *
+ * Responsibilities:
+ * - Capture every INTERVAL_NANOS of real play time
+ * - Rotate over SLOTS files (autosave-0.bcs ...), an interrupted write only
+ *   ever loses its own slot
+ * - Skip a capture while the previous write is still running, never block
+ * - Let an in-flight write finish when the JVM exits (e.g. the Headquarter falls)
+ */
+public class Autosaver {
+    static final long INTERVAL_NANOS = 30_000_000_000L; // real time between autosaves
+    static final int SLOTS = 3;
+    private static final long EXIT_WAIT_MILLIS = 2000; // how long a JVM exit waits for a running write
+
+    private final GameManager game;
+    private final Path dir;
+    private final MatchSnapshot snapshot = new MatchSnapshot(); // its buffer belongs to the writer while busy
+    private final AtomicBoolean writing = new AtomicBoolean(false);
+    private volatile Thread writer;
+    private long lastSaveNanos;
+    private int nextSlot = 0;
+
+    public Autosaver(GameManager game, Path dir) {
+        this.game = game;
+        this.dir = dir;
+        this.lastSaveNanos = System.nanoTime();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::awaitWrite, "autosave-exit"));
+    }
+
+    /**
+     * Start counting from now (new or loaded match)
+     */
+    public void restart() {
+        lastSaveNanos = System.nanoTime();
+    }
+
+    /**
+     * Autosave if it is due. Call between ticks on the game thread.
+     */
+    public void update() {
+        long now = System.nanoTime();
+        if (now - lastSaveNanos < INTERVAL_NANOS || game.isGameOver()) {
+            return;
+        }
+        if (!writing.compareAndSet(false, true)) {
+            return; // previous write still running (slow disk), try again next frame
+        }
+        lastSaveNanos = now;
+        ByteBuffer data = snapshot.capture(game);
+        Path path = dir.resolve("autosave-" + nextSlot + ".bcs");
+        nextSlot = (nextSlot + 1) % SLOTS;
+        writer = Thread.ofVirtual().name("autosave").start(() -> {
+            try {
+                MatchSnapshot.write(data, path, true);
+            } catch (IOException e) {
+                System.err.println("[Autosaver] Could not write " + path + ": " + e.getMessage());
+            } finally {
+                writing.set(false);
+            }
+        });
+    }
+
+    // Give a running write the chance to complete before the JVM goes away
+    private void awaitWrite() {
+        Thread running = writer;
+        if (running != null) {
+            try {
+                running.join(EXIT_WAIT_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Existing saves among the autosave slots and the given extra files,
+     * most recently written first (empty if there is none). A caller tries
+     * them in turn, so one bad write only loses its own slot.
+     */
+    public static List<Path> latestSaves(Path dir, Path... others) {
+        Path[] candidates = new Path[SLOTS + others.length];
+        for (int i = 0; i < SLOTS; i++) {
+            candidates[i] = dir.resolve("autosave-" + i + ".bcs");
+        }
+        System.arraycopy(others, 0, candidates, SLOTS, others.length);
+        List<Path> saves = new ArrayList<>();
+        HashMap<Path, FileTime> times = new HashMap<>();
+        for (Path candidate : candidates) {
+            try {
+                if (Files.exists(candidate)) {
+                    times.put(candidate, Files.getLastModifiedTime(candidate));
+                    saves.add(candidate);
+                }
+            } catch (IOException e) {
+                // unreadable slot, ignore it
+            }
+        }
+        saves.sort((a, b) -> times.get(b).compareTo(times.get(a)));
+        return saves;
+    }
+}
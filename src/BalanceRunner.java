@@ -0,0 +1,186 @@
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Batch balance runner: plays many seeded headless matches of one config
+ * variant and build order in parallel, and writes an aggregated report.
+ *
+ * Responsibilities:
+ * - Load the config variant once and share it between all matches
+ * - Fan the matches out over a ForkJoinPool (one match per task)
+ * - Aggregate waves survived, kromer curves and damage dealt per weapon
+ *
+ * Usage (from the project root):
+ *   java -Djava.awt.headless=true -cp bin:lib/gson-2.10.1.jar BalanceRunner
+ *        [--configs dir] [--build-order file] [--matches 64] [--threads cores]
+ *        [--map plain] [--mode normal] [--waves 12] [--max-minutes 30]
+ *        [--seed 1] [--out balance_report.txt]
+ *
+ * --configs is a directory with any of buildings.json/enemies.json/weapons.json;
+ * missing files fall back to resources/config. Match i is seeded with seed + i.
+ */
+public class BalanceRunner {
+    private final ConfigManager configs;
+    private final BuildOrder order;
+    private final String map;
+    private final String mode;
+    private final int waves;
+    private final double maxSeconds;
+
+    public BalanceRunner(ConfigManager configs, BuildOrder order, String map, String mode, int waves,
+            double maxSeconds) {
+        this.configs = configs;
+        this.order = order;
+        this.map = map;
+        this.mode = mode;
+        this.waves = waves;
+        this.maxSeconds = maxSeconds;
+    }
+
+    /**
+     * Play one match with the given seed
+     */
+    public HeadlessRunner.Result runMatch(long seed) {
+        HeadlessRunner runner = new HeadlessRunner(configs);
+        runner.getGameManager().setSeed(seed);
+        runner.setSensePool(null); // the matches themselves already use every core
+        return runner.run(map, mode, waves, maxSeconds, order);
+    }
+
+    /**
+     * Play matches seeded firstSeed .. firstSeed + matches - 1 on a pool of the
+     * given size. Results come back in seed order whatever the scheduling.
+     */
+    public List<HeadlessRunner.Result> runAll(int matches, long firstSeed, int threads) throws Exception {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return pool.submit(() -> IntStream.range(0, matches).parallel()
+                    .mapToObj(i -> runMatch(firstSeed + i))
+                    .collect(Collectors.toList())).get();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Write the aggregated report for a batch of results
+     */
+    public void writeReport(String path, List<HeadlessRunner.Result> results, int threads, long wallNanos)
+            throws IOException {
+        int n = results.size();
+        int minWaves = Integer.MAX_VALUE, maxWaves = 0, alive = 0;
+        double totalWaves = 0, totalSimSeconds = 0;
+        TreeMap<Integer, Integer> waveHistogram = new TreeMap<>();
+        TreeMap<String, Long> damage = new TreeMap<>();
+        int longestCurve = 0;
+
+        for (HeadlessRunner.Result r : results) {
+            minWaves = Math.min(minWaves, r.wavesSurvived);
+            maxWaves = Math.max(maxWaves, r.wavesSurvived);
+            totalWaves += r.wavesSurvived;
+            totalSimSeconds += r.simSeconds;
+            if (r.headquarterAlive) {
+                alive++;
+            }
+            waveHistogram.merge(r.wavesSurvived, 1, Integer::sum);
+            for (HashMap.Entry<String, Long> e : r.damageByWeapon.entrySet()) {
+                damage.merge(e.getKey(), e.getValue(), Long::sum);
+            }
+            longestCurve = Math.max(longestCurve, r.kromerCurve.size());
+        }
+
+        try (PrintWriter out = new PrintWriter(path)) {
+            double wallSeconds = wallNanos / 1_000_000_000.0;
+            out.println("# Balance report");
+            out.println("map: " + map + ", mode: " + mode + ", target waves: " + waves
+                    + ", build order steps: " + (order != null ? order.size() : 0));
+            out.println("matches: " + n + ", threads: " + threads
+                    + ", wall time: " + String.format("%.1f", wallSeconds) + "s"
+                    + ", simulated: " + String.format("%.0f", totalSimSeconds) + "s");
+            out.println();
+
+            out.println("## Waves survived");
+            out.println("mean: " + String.format("%.2f", n > 0 ? totalWaves / n : 0)
+                    + ", min: " + (n > 0 ? minWaves : 0) + ", max: " + maxWaves
+                    + ", HQ alive: " + alive + "/" + n);
+            for (HashMap.Entry<Integer, Integer> e : waveHistogram.entrySet()) {
+                out.println("  " + e.getKey() + " waves: " + e.getValue());
+            }
+            out.println();
+
+            out.println("## Kromer curve (mean over matches still running)");
+            out.println("time_s,mean_kromer,matches");
+            for (int i = 0; i < longestCurve; i++) {
+                long sum = 0;
+                int count = 0;
+                for (HeadlessRunner.Result r : results) {
+                    if (i < r.kromerCurve.size()) {
+                        sum += r.kromerCurve.get(i);
+                        count++;
+                    }
+                }
+                out.println(String.format("%.0f,%.1f,%d", i * HeadlessRunner.KROMER_SAMPLE_INTERVAL,
+                        (double) sum / count, count));
+            }
+            out.println();
+
+            out.println("## Damage dealt per weapon");
+            out.println("weapon,total,mean_per_match");
+            for (HashMap.Entry<String, Long> e : damage.entrySet()) {
+                out.println(e.getKey() + "," + e.getValue() + "," + String.format("%.1f", (double) e.getValue() / n));
+            }
+            out.println();
+
+            out.println("## Matches");
+            out.println("seed,waves,hq_alive,sim_s,kromer,power,build_steps");
+            for (HeadlessRunner.Result r : results) {
+                out.println(r.seed + "," + r.wavesSurvived + "," + r.headquarterAlive + ","
+                        + String.format("%.1f", r.simSeconds) + "," + r.kromer + "," + r.power + ","
+                        + r.buildStepsDone);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+
+        HashMap<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Expected --option value, got " + args[i]);
+            }
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+
+        String map = options.getOrDefault("map", "plain");
+        String mode = options.getOrDefault("mode", "normal");
+        int waves = Integer.parseInt(options.getOrDefault("waves", "12"));
+        double maxSeconds = Double.parseDouble(options.getOrDefault("max-minutes", "30")) * 60;
+        int matches = Integer.parseInt(options.getOrDefault("matches", "64"));
+        int threads = Integer.parseInt(options.getOrDefault("threads",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+        long seed = Long.parseLong(options.getOrDefault("seed", "1"));
+        String outPath = options.getOrDefault("out", "balance_report.txt");
+
+        ConfigManager configs = new ConfigManager(options.get("configs"));
+        configs.loadConfigs();
+        BuildOrder order = options.containsKey("build-order") ? BuildOrder.load(options.get("build-order")) : null;
+
+        BalanceRunner runner = new BalanceRunner(configs, order, map, mode, waves, maxSeconds);
+        long start = System.nanoTime();
+        List<HeadlessRunner.Result> results = runner.runAll(matches, seed, threads);
+        long wallNanos = System.nanoTime() - start;
+
+        runner.writeReport(outPath, results, threads, wallNanos);
+        double meanWaves = results.stream().mapToInt(r -> r.wavesSurvived).average().orElse(0);
+        System.out.println("[BalanceRunner] " + matches + " matches on " + threads + " threads in "
+                + String.format("%.1f", wallNanos / 1_000_000_000.0) + "s, mean waves survived: "
+                + String.format("%.2f", meanWaves) + ", report: " + outPath);
+    }
+}
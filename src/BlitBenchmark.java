@@ -0,0 +1,121 @@
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.Image;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import javax.imageio.ImageIO;
+
+/**
+ * Blit benchmark: draws the game's sprites into a frame-sized back buffer,
+ * once as plain ARGB images (how sprites used to be loaded) and once as the
+ * compatible images Utilities.load now returns, and reports the time per frame.
+ *
+ * Responsibilities:
+ * - Load every sprite in resources/images both ways
+ * - Draw the same sprites at the same positions each frame for both sets
+ * - Print the average frame time of each and the speedup
+ *
+ * Usage (from the project root):
+ *   java -cp bin:lib/gson-2.10.1.jar BlitBenchmark [--sprites 2000] [--frames 300]
+ *
+ * With a display the back buffer is a VolatileImage, as the game window's is;
+ * headless (-Djava.awt.headless=true) it is an opaque BufferedImage, which
+ * measures the software loops only.
+ */
+public class BlitBenchmark {
+    private static final int WIDTH = 1920;
+    private static final int HEIGHT = 1080;
+    private static final int WARMUP_FRAMES = 60;
+
+    public static void main(String[] args) throws IOException {
+        int sprites = 2000;
+        int frames = 300;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--sprites":
+                    sprites = Integer.parseInt(args[++i]);
+                    break;
+                case "--frames":
+                    frames = Integer.parseInt(args[++i]);
+                    break;
+                default:
+                    System.err.println("Unknown argument: " + args[i]);
+                    return;
+            }
+        }
+
+        List<BufferedImage> plain = new ArrayList<>();
+        List<BufferedImage> compatible = new ArrayList<>();
+        File[] files = new File(Utilities.imgPath).listFiles((dir, file) -> file.endsWith(".png"));
+        if (files == null || files.length == 0) {
+            System.err.println("No sprites in " + Utilities.imgPath);
+            return;
+        }
+        for (File file : files) {
+            BufferedImage image = ImageIO.read(file);
+            BufferedImage argb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = argb.createGraphics();
+            g.drawImage(image, 0, 0, null);
+            g.dispose();
+            plain.add(argb);
+            compatible.add(Utilities.load(file.getName().replace(".png", ""), 1.0, 1.0));
+        }
+
+        // Same sprite and position sequence for both runs
+        int[] order = new int[sprites * 3];
+        SimRandom random = new SimRandom(1);
+        for (int i = 0; i < sprites; i++) {
+            order[i * 3] = random.nextInt(files.length);
+            order[i * 3 + 1] = random.nextInt(WIDTH);
+            order[i * 3 + 2] = random.nextInt(HEIGHT);
+        }
+
+        System.out.println(files.length + " sprites, " + sprites + " blits per frame, " + frames + " frames, "
+                + (GraphicsEnvironment.isHeadless() ? "headless BufferedImage" : "VolatileImage") + " target");
+        double plainMs = run(plain, order, frames);
+        double compatibleMs = run(compatible, order, frames);
+        System.out.printf("plain ARGB:  %.3f ms/frame%n", plainMs);
+        System.out.printf("compatible:  %.3f ms/frame%n", compatibleMs);
+        System.out.printf("speedup:     %.2fx%n", plainMs / compatibleMs);
+    }
+
+    // Average milliseconds per frame of drawing the sprites into a fresh back buffer
+    private static double run(List<BufferedImage> images, int[] order, int frames) {
+        Image target = backBuffer();
+        for (int frame = 0; frame < WARMUP_FRAMES; frame++) {
+            frame(target, images, order);
+        }
+        long start = System.nanoTime();
+        for (int frame = 0; frame < frames; frame++) {
+            frame(target, images, order);
+        }
+        if (target instanceof VolatileImage) {
+            ((VolatileImage) target).getSnapshot().flush(); // wait for the pipeline to finish the frames
+        }
+        return (System.nanoTime() - start) / 1e6 / frames;
+    }
+
+    private static void frame(Image target, List<BufferedImage> images, int[] order) {
+        Graphics2D g = (Graphics2D) target.getGraphics();
+        g.clearRect(0, 0, WIDTH, HEIGHT);
+        for (int i = 0; i < order.length; i += 3) {
+            g.drawImage(images.get(order[i]), order[i + 1], order[i + 2], null);
+        }
+        g.dispose();
+    }
+
+    private static Image backBuffer() {
+        if (GraphicsEnvironment.isHeadless()) {
+            return new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        }
+        GraphicsConfiguration config = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+                .getDefaultConfiguration();
+        return config.createCompatibleVolatileImage(WIDTH, HEIGHT, Transparency.OPAQUE);
+    }
+}
@@ -0,0 +1,111 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Scripted build order for headless and balance runs.
+ * Steps are carried out strictly in order, using the same construction rules
+ * as the build menu (cost, prerequisites, one construction per category).
+ *
+ * File format, one step per line ('#' starts a comment):
+ *   PowerPlant 1 6     construct the building, then place its top-left cell at (1, 6)
+ *   start              start wave 1 (without this line waves start immediately)
+ *
+ * The parsed order is read-only, so one instance can drive many parallel matches;
+ * each match keeps its own step index.
+ */
+public class BuildOrder {
+    private static class Step {
+        String building; // null for the "start" step
+        int x, y;
+    }
+
+    private final List<Step> steps = new ArrayList<>();
+    private boolean startsWaves = false; // true if the order contains a "start" step
+
+    /**
+     * Parse a build order file
+     */
+    public static BuildOrder load(String path) throws IOException {
+        BuildOrder order = new BuildOrder();
+        List<String> lines = Files.readAllLines(Paths.get(path));
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            int comment = line.indexOf('#');
+            if (comment >= 0) {
+                line = line.substring(0, comment);
+            }
+            line = line.trim();
+            if (line.isEmpty()) {
+                continue;
+            }
+
+            String[] parts = line.split("\\s+");
+            Step step = new Step();
+            if (parts.length == 1 && parts[0].equalsIgnoreCase("start")) {
+                order.startsWaves = true;
+            } else if (parts.length == 3) {
+                try {
+                    step.building = parts[0];
+                    step.x = Integer.parseInt(parts[1]);
+                    step.y = Integer.parseInt(parts[2]);
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException(path + ":" + (i + 1) + ": bad cell in \"" + line + "\"");
+                }
+            } else {
+                throw new IllegalArgumentException(path + ":" + (i + 1) + ": expected \"Building x y\" or \"start\"");
+            }
+            order.steps.add(step);
+        }
+        return order;
+    }
+
+    public boolean startsWaves() {
+        return startsWaves;
+    }
+
+    public int size() {
+        return steps.size();
+    }
+
+    /**
+     * Work on the build order of one match, call once per tick.
+     * Starts the construction of the current step (waiting for kromer,
+     * prerequisites and a free category), places it once ready, and returns
+     * the index of the step to continue with next tick.
+     * A building that cannot be placed at its cell is refunded and skipped;
+     * unknown building names are skipped.
+     */
+    public int execute(GameManager game, int stepIndex) {
+        while (stepIndex < steps.size()) {
+            Step step = steps.get(stepIndex);
+            if (step.building == null) {
+                game.startWaves();
+                stepIndex++;
+                continue;
+            }
+
+            Icon icon = game.getIcon(step.building);
+            if (icon == null) {
+                stepIndex++;
+                continue;
+            }
+
+            if (icon.ready) {
+                if (!game.placeBuilding(icon, step.x, step.y)) {
+                    game.cancelConstruction(icon); // blocked cell, give the money back
+                }
+                stepIndex++;
+                continue;
+            }
+
+            if (!icon.building) {
+                game.beginConstruction(icon);
+            }
+            return stepIndex;
+        }
+        return stepIndex;
+    }
+}
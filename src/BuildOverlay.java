@@ -0,0 +1,120 @@
+import java.awt.*;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Path2D;
+import java.awt.image.BufferedImage;
+import java.util.List;
+
+/**
+ * Cached drawing of build mode: the buildable/unbuildable cell coverage and
+ * the placement preview's range rings.
+ *
+ * The coverage only changes when Gamma.refresh() recomputes the cell lists
+ * (entering build mode, a building placed or removed), so it is drawn once
+ * into a translucent image covering just those cells and blitted every frame.
+ * The preview's range rings depend only on the building type and the range
+ * multiplier, so they are built once as one shape relative to the building's
+ * top-left corner and drawn translated to the cursor cell.
+ *
+ * Responsibilities:
+ * - Keep the coverage image, redrawn only when the cell lists change
+ * - Keep the range ring shape of the building being placed
+ * - Draw both for the current frame
+ */
+public class BuildOverlay {
+    private final Color buildableColor;
+    private final Color unbuildableColor;
+
+    // Coverage image and what it was drawn from
+    private BufferedImage coverage;
+    private int coverageX, coverageY; // pixel position of the image
+    private int coverageVersion = -1;
+
+    // Range rings of the previewed building
+    private Shape rings;
+    private Icon ringsIcon;
+    private double ringsRangeMult;
+
+    public BuildOverlay(Color buildableColor, Color unbuildableColor) {
+        this.buildableColor = buildableColor;
+        this.unbuildableColor = unbuildableColor;
+    }
+
+    // ==================== COVERAGE ====================
+
+    /**
+     * Draw the buildable/unbuildable cells, redrawing the cached image if the lists changed
+     */
+    public void renderCoverage(Graphics2D g2d, List<Point> buildable, List<Point> unbuildable, int version) {
+        if (version != coverageVersion) {
+            redraw(buildable, unbuildable);
+            coverageVersion = version;
+        }
+        if (coverage != null) {
+            g2d.drawImage(coverage, coverageX, coverageY, null);
+        }
+    }
+
+    private void redraw(List<Point> buildable, List<Point> unbuildable) {
+        coverage = null;
+        if (buildable.isEmpty() && unbuildable.isEmpty()) {
+            return;
+        }
+        // Only as large as the cells it covers
+        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+        for (List<Point> cells : List.of(buildable, unbuildable)) {
+            for (Point p : cells) {
+                minX = Math.min(minX, p.x);
+                minY = Math.min(minY, p.y);
+                maxX = Math.max(maxX, p.x);
+                maxY = Math.max(maxY, p.y);
+            }
+        }
+        int size = Location.cellSize;
+        coverageX = minX * size;
+        coverageY = minY * size;
+        coverage = Utilities.createCompatibleImage((maxX - minX + 1) * size, (maxY - minY + 1) * size);
+        Graphics2D g = coverage.createGraphics();
+        g.translate(-coverageX, -coverageY);
+        g.setColor(buildableColor);
+        for (Point p : buildable) {
+            g.fillRect(p.x * size, p.y * size, size, size);
+        }
+        g.setColor(unbuildableColor);
+        for (Point p : unbuildable) {
+            g.fillRect(p.x * size, p.y * size, size, size);
+        }
+        g.dispose();
+    }
+
+    // ==================== RANGE RINGS ====================
+
+    /**
+     * Draw the range rings of a building of the given type placed with its top-left cell at (cellX, cellY)
+     */
+    public void renderRings(Graphics2D g2d, Icon icon, int cellX, int cellY, double rangeMult) {
+        if (icon != ringsIcon || rangeMult != ringsRangeMult) {
+            rings = ringsOf(icon.stats, rangeMult);
+            ringsIcon = icon;
+            ringsRangeMult = rangeMult;
+        }
+        int dx = cellX * Location.cellSize;
+        int dy = cellY * Location.cellSize;
+        g2d.translate(dx, dy);
+        g2d.draw(rings);
+        g2d.translate(-dx, -dy);
+    }
+
+    // Every turret's ring, relative to the building's top-left corner
+    private static Shape ringsOf(BuildingStats stats, double rangeMult) {
+        Path2D.Double shape = new Path2D.Double();
+        int centerX = (stats.width * Location.cellSize) / 2;
+        int centerY = (stats.height * Location.cellSize) / 2;
+        for (TurretStats turret : stats.turrets) {
+            int turretX = centerX + turret.offsetX;
+            int turretY = centerY + turret.offsetY;
+            int radius = (int) (turret.range * rangeMult * Location.cellSize);
+            shape.append(new Ellipse2D.Double(turretX - radius, turretY - radius, radius * 2, radius * 2), false);
+        }
+        return shape;
+    }
+}
@@ -30,7 +30,7 @@ public class BuildingManager {
     }
     
     // ==================== BUILD MODE ====================
-    // Note: buildMode, buildingToBuild, turretOffsets, etc. remain in Gamma
+    // Note: buildMode, buildingToBuild, preview size, etc. remain in Gamma
     // for now since they involve inner classes. This manager provides
     // mode transition logic and interaction handling.
     
@@ -38,15 +38,13 @@ public class BuildingManager {
         gamma.buildMode = false;
         gamma.buildingToBuild = null;
         gamma.iconToBuild = null;
-        gamma.turretOffsets.clear();
-        gamma.turretRanges.clear();
         gamma.previewWidth = 0;
         gamma.previewHeight = 0;
         // Only clear the construction flag for the specific building type, not both
         // This will be handled more specifically when canceling a specific type
         // For now, clearing both is correct for full mode exit
-        gamma.proOnCons = false;
-        gamma.offOnCons = false;
+        gamma.getGameManager().setConstructing("productive", false);
+        gamma.getGameManager().setConstructing("offensive", false);
         gamma.buildable.clear();
         gamma.unbuildable.clear();
     }
@@ -104,19 +102,18 @@ public class BuildingManager {
         if (!(sellMode || repairMode)) return false;
         
         // Get building at this cell
-        Building target = Location.buildingOccupancy.get(new Point(cellX, cellY));
+        Building target = gameManager.getBuildingAt(cellX, cellY);
         if (target == null) return false;
         
         if (sellMode && !(target instanceof Headquarter)) {
-            // Delegate sell logic to Gamma since it has access to Icon class
-            return gamma.sellBuilding(target);
+            // Selling goes through GameManager so it is recorded for replays
+            return gameManager.sellBuilding(target);
         } else if (repairMode) {
             // Toggle repair mode on the building
             if (target.health >= target.maxHealth) {
                 gamma.error("already max health");
             } else {
-                target.repairing = !target.repairing;
-                return true;
+                return gameManager.toggleRepair(target);
             }
         }
         
@@ -127,12 +124,10 @@ public class BuildingManager {
      * Clear all build/repair/sell modes
      */
     public void clearAllModes() {
-        // Clear the main build mode variables (don't touch proOnCons/offOnCons - those are managed by Icon)
+        // Clear the main build mode variables (don't touch the construction flags - those are managed by Icon)
         gamma.buildMode = false;
         gamma.buildingToBuild = null;
         gamma.iconToBuild = null;
-        gamma.turretOffsets.clear();
-        gamma.turretRanges.clear();
         gamma.previewWidth = 0;
         gamma.previewHeight = 0;
         gamma.buildable.clear();
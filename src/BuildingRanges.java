@@ -0,0 +1,131 @@
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Building cells near each stretch of the enemy path, for enemy turret
+ * targeting without walking the whole building occupancy.
+ *
+ * An enemy with pathIndex i is on the segment from path point i to point
+ * i + 1 (see RangeZones), so its turrets can only reach the building cells
+ * near that segment. For every reach (whole cells, turret offset included)
+ * a table lists those cells per segment, in the occupancy map's own order,
+ * so a pick over them rolls exactly like a pick over the whole map.
+ *
+ * Tables are built on first use and dropped when a building cell is added or
+ * removed. They are published copy-on-write, so the parallel sense phase can
+ * read them without locking.
+ *
+ * Responsibilities:
+ * - Build and cache the per-segment building cells for a reach
+ * - Drop the tables when buildings are placed or destroyed, or the map changes
+ */
+public class BuildingRanges {
+    /**
+     * Building cells near one path segment, with the building on each
+     */
+    public static final class Segment {
+        final Point[] cells;
+        final Building[] owners;
+
+        Segment(Point[] cells, Building[] owners) {
+            this.cells = cells;
+            this.owners = owners;
+        }
+    }
+
+    // Everything built for one occupancy version, replaced as a whole
+    private static final class Tables {
+        final MapManager map;
+        final int version;
+        final int[] reaches;
+        final Segment[][] segments; // [table][pathIndex + 1]
+
+        Tables(MapManager map, int version, int[] reaches, Segment[][] segments) {
+            this.map = map;
+            this.version = version;
+            this.reaches = reaches;
+            this.segments = segments;
+        }
+    }
+
+    private final GameManager game;
+    private volatile Tables tables = new Tables(null, -1, new int[0], new Segment[0][]);
+
+    public BuildingRanges(GameManager game) {
+        this.game = game;
+    }
+
+    /**
+     * Building cells within reachCells of the segment an enemy with the given
+     * pathIndex is on (may also hold cells a little further away)
+     */
+    public Segment near(int pathIndex, int reachCells) {
+        Tables current = tables;
+        MapManager map = game.getMap();
+        if (current.map != map || current.version != map.getBuildingVersion()) {
+            current = rebuild(map, reachCells);
+        }
+        int table = indexOf(current.reaches, reachCells);
+        if (table < 0) {
+            current = rebuild(map, reachCells);
+            table = indexOf(current.reaches, reachCells);
+        }
+        Segment[] segments = current.segments[table];
+        return segments[Math.max(0, Math.min(segments.length - 1, pathIndex + 1))];
+    }
+
+    // Add the reach to the current tables, or start over if the buildings changed
+    private synchronized Tables rebuild(MapManager map, int reachCells) {
+        Tables current = tables;
+        if (current.map != map || current.version != map.getBuildingVersion()) {
+            current = new Tables(map, map.getBuildingVersion(), new int[0], new Segment[0][]);
+        }
+        if (indexOf(current.reaches, reachCells) < 0) {
+            int n = current.reaches.length;
+            int[] reaches = Arrays.copyOf(current.reaches, n + 1);
+            Segment[][] segments = Arrays.copyOf(current.segments, n + 1);
+            reaches[n] = reachCells;
+            segments[n] = build(map, reachCells);
+            current = new Tables(map, current.version, reaches, segments);
+        }
+        tables = current;
+        return current;
+    }
+
+    private static Segment[] build(MapManager map, int reachCells) {
+        List<Point> path = map.getPath();
+        double reach = reachCells * Location.cellSize;
+        Segment[] segments = new Segment[path.size() + 1];
+        ArrayList<Point> cells = new ArrayList<>();
+        ArrayList<Building> owners = new ArrayList<>();
+        for (int index = -1; index < path.size(); index++) {
+            Point from = index < 0 ? map.getStartPoint() : path.get(index);
+            Point to = index + 1 < path.size() ? path.get(index + 1) : from;
+            cells.clear();
+            owners.clear();
+            for (Map.Entry<Point, Building> entry : map.getBuildingOccupancy().entrySet()) {
+                Point cell = entry.getKey();
+                if (RangeZones.distanceToSegment(RangeZones.center(cell.x), RangeZones.center(cell.y),
+                        RangeZones.center(from.x), RangeZones.center(from.y),
+                        RangeZones.center(to.x), RangeZones.center(to.y)) <= reach) {
+                    cells.add(cell);
+                    owners.add(entry.getValue());
+                }
+            }
+            segments[index + 1] = new Segment(cells.toArray(new Point[0]), owners.toArray(new Building[0]));
+        }
+        return segments;
+    }
+
+    private static int indexOf(int[] values, int value) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -10,6 +10,7 @@ public class BuildingStats {
     public String name;                 // e.g., "AutoCannon", "PowerPlant"
     public String buildingType;         // "productive" or "offensive"
     public Class<?> buildingClass;      // the Java class (e.g., AutoCannon.class)
+    public int typeIndex = -1;          // position in buildings.json, indexes EnemyStats.weightByBuildingType
     
     // Construction
     public int cost;                    // kromer cost
@@ -22,6 +23,8 @@ public class BuildingStats {
     public int width, height;           // grid cells
     public int health;
     public int power;                   // negative = consumes, positive = generates
+    public int income;                  // kromer per payment, 0 = not a producer (see Economy)
+    public double incomePeriod;         // seconds between payments, paid during waves only
     
     // Collision/Hitbox (auto-calculated from width/height but can be overridden)
     public double hitboxOffsetX = -1;   // -1 means auto-calculate from width/height. offset from center
@@ -31,6 +34,7 @@ public class BuildingStats {
     
     // Turrets and weapons
     public List<TurretStats> turrets;   // turrets this building has
+    public List<AuraStats> auras;       // modifiers it applies to all buildings while it stands
     
     // Metadata
     public String description;
@@ -39,6 +43,7 @@ public class BuildingStats {
     public BuildingStats() {
         this.prerequisites = new ArrayList<>();
         this.turrets = new ArrayList<>();
+        this.auras = new ArrayList<>();
         this.buildLimit = -1;
         this.buildRange = 0;
         this.power = 0;
@@ -0,0 +1,121 @@
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Standing buildings per type, kept up to date on placement and destruction,
+ * so build limits, prerequisites and the build menu never scan the instances.
+ *
+ * Types are the building types' positions in buildings.json
+ * (BuildingStats.typeIndex). A type is standing while at least one building
+ * of it is placed; the standing types are a bit set, and a build menu entry's
+ * prerequisites are a mask over the same bits (see Icon), so checking them is
+ * a few word compares.
+ *
+ * Responsibilities:
+ * - Count the placed buildings of each type
+ * - Keep the bit set of standing types
+ * - Resolve prerequisite names into masks once, when the build menu is set up
+ */
+public class Census {
+    private final GameManager game;
+    private int[] counts = new int[0]; // by type index
+    private long[] standing = new long[0]; // bit type index set = at least one placed
+
+    public Census(GameManager game) {
+        this.game = game;
+    }
+
+    // ==================== EVENTS ====================
+
+    /**
+     * A building joined the match
+     */
+    public void placed(Building building) {
+        int type = building.typeIndex;
+        if (type < 0) {
+            return; // not in the configs, nothing refers to it
+        }
+        if (type >= counts.length) {
+            counts = Arrays.copyOf(counts, type + 1);
+            standing = Arrays.copyOf(standing, (type + 64) / 64);
+        }
+        if (counts[type]++ == 0) {
+            standing[type >> 6] |= 1L << type;
+        }
+    }
+
+    /**
+     * A building left the match (destroyed or sold)
+     */
+    public void removed(Building building) {
+        int type = building.typeIndex;
+        if (type < 0 || type >= counts.length || counts[type] == 0) {
+            return;
+        }
+        if (--counts[type] == 0) {
+            standing[type >> 6] &= ~(1L << type);
+        }
+    }
+
+    // ==================== QUERIES ====================
+
+    /**
+     * Number of placed buildings of the given type
+     */
+    public int count(int typeIndex) {
+        return typeIndex >= 0 && typeIndex < counts.length ? counts[typeIndex] : 0;
+    }
+
+    /**
+     * Whether every type in the mask has a building standing (null = can never be met)
+     */
+    public boolean satisfies(long[] mask) {
+        if (mask == null) {
+            return false;
+        }
+        for (int i = 0; i < mask.length; i++) {
+            long have = i < standing.length ? standing[i] : 0;
+            if ((mask[i] & have) != mask[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Mask of the building types with the given names (case-insensitive),
+     * null if one of them is not a building type
+     */
+    public long[] maskOf(List<String> names) {
+        Collection<BuildingStats> types = game.getConfigManager().getAllBuildingStats().values();
+        long[] mask = new long[0];
+        for (String name : names) {
+            int type = -1;
+            for (BuildingStats stats : types) {
+                if (stats.name.equalsIgnoreCase(name)) {
+                    type = stats.typeIndex;
+                    break;
+                }
+            }
+            if (type < 0) {
+                return null;
+            }
+            if (type >= mask.length * 64) {
+                mask = Arrays.copyOf(mask, type / 64 + 1);
+            }
+            mask[type >> 6] |= 1L << type;
+        }
+        return mask;
+    }
+
+    // ==================== RESET ====================
+
+    /**
+     * No buildings (new match)
+     */
+    public void reset() {
+        Arrays.fill(counts, 0);
+        Arrays.fill(standing, 0);
+    }
+}
@@ -0,0 +1,139 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Structural changes to a match collected during a tick and applied in one
+ * phase at its end, so nothing adds to, removes from or kills in the instance
+ * list while the update loop is walking it.
+ * (Not to be confused with CommandLog, which records the player's commands.)
+ *
+ * Every command is keyed by its producer's position in the update order and a
+ * per-producer sequence number. Producers may append from any thread; the apply
+ * phase sorts by that key, so the outcome is the same as a single-threaded
+ * update no matter how the appends interleaved.
+ *
+ * Responsibilities:
+ * - Accept spawn, damage and despawn commands from any thread
+ * - Apply them in (producer, sequence) order on the game thread
+ * - Run kill side effects (rewards, occupancy, adjacency) in that phase only
+ */
+public class CommandBuffer {
+    static final int SPAWN = 0;
+    static final int DAMAGE = 1;
+    static final int DESPAWN = 2;
+
+    private static final Comparator<Command> BY_KEY = Comparator.comparingLong(command -> command.key);
+
+    private static final class Command {
+        final long key;
+        final int type;
+        final Instance target;
+        final int amount; // damage dealt
+        final String source; // weapon name for the damage stats
+
+        Command(long key, int type, Instance target, int amount, String source) {
+            this.key = key;
+            this.type = type;
+            this.target = target;
+            this.amount = amount;
+            this.source = source;
+        }
+    }
+
+    private final GameManager game;
+    private final ConcurrentLinkedQueue<Command> pending = new ConcurrentLinkedQueue<>();
+    private final ArrayList<Command> batch = new ArrayList<>(); // reused by apply()
+    private int worldSeq = 0; // sequence of world producers (waves, player), game thread only
+
+    public CommandBuffer(GameManager game) {
+        this.game = game;
+    }
+
+    // ==================== PRODUCERS ====================
+
+    /**
+     * Add an instance to the match at the end of the tick
+     * (producer null = world systems on the game thread)
+     */
+    public void spawn(Instance producer, Instance instance) {
+        pending.add(new Command(keyOf(producer), SPAWN, instance, 0, null));
+    }
+
+    /**
+     * Deal damage at the end of the tick, killing the target if it drops to 0
+     */
+    public void damage(Instance producer, Instance target, int amount, String source) {
+        pending.add(new Command(keyOf(producer), DAMAGE, target, amount, source));
+    }
+
+    /**
+     * Destroy an instance at the end of the tick
+     */
+    public void despawn(Instance producer, Instance target) {
+        pending.add(new Command(keyOf(producer), DESPAWN, target, 0, null));
+    }
+
+    // Position in the update order (world first), then the producer's own sequence
+    private long keyOf(Instance producer) {
+        if (producer == null) {
+            return worldSeq++;
+        }
+        return ((long) (producer.updateOrder + 1) << 32) | producer.commandSeq++;
+    }
+
+    // ==================== APPLY ====================
+
+    /**
+     * Apply everything appended so far. Call on the game thread between update phases.
+     */
+    public void apply() {
+        while (!pending.isEmpty()) {
+            Command command;
+            while ((command = pending.poll()) != null) {
+                batch.add(command);
+            }
+            batch.sort(BY_KEY);
+            for (Command next : batch) {
+                execute(next);
+            }
+            batch.clear(); // kills may append again (e.g. a despawn from a destroy), loop until quiet
+        }
+        worldSeq = 0;
+    }
+
+    private void execute(Command command) {
+        Instance target = command.target;
+        switch (command.type) {
+            case SPAWN:
+                game.getInstances().add(target);
+                break;
+            case DAMAGE:
+                if (!target.isAlive()) {
+                    break; // already killed earlier in this tick
+                }
+                target.health -= command.amount;
+                game.recordDamage(command.source, command.amount);
+                if (target.health <= 0) {
+                    target.destroy();
+                }
+                break;
+            case DESPAWN:
+                if (target.isAlive()) {
+                    target.destroy();
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Drop everything not yet applied (new match, back to menu)
+     */
+    public void clear() {
+        pending.clear();
+        batch.clear();
+        worldSeq = 0;
+    }
+}
@@ -0,0 +1,250 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Compact binary log of the player's commands in one match, for replays.
+ * Together with the match seed, map and mode the log reproduces the match
+ * exactly, since the simulation runs in fixed ticks and uses only seeded RNG.
+ *
+ * Format (big endian, varint = unsigned LEB128):
+ *   int magic "BCR1", long seed, UTF map, UTF mode
+ *   records: varint ticks since previous record, byte opcode, varint args...
+ *   last record: END at the final tick
+ *
+ * A command costs 2-5 bytes, so an hour of play stays within a few KB.
+ *
+ * Responsibilities:
+ * - Record commands (GameManager calls record() for every effective command)
+ * - Save/load the log
+ * - Feed the commands back into a match at the tick they were given
+ */
+public class CommandLog {
+    private static final int MAGIC = 0x42435231; // "BCR1"
+
+    // Opcodes and their arguments
+    static final int BEGIN_CONSTRUCTION = 1; // icon index
+    static final int CANCEL_CONSTRUCTION = 2; // icon index
+    static final int PLACE = 3; // icon index, x, y
+    static final int SELL = 4; // x, y
+    static final int REPAIR = 5; // x, y
+    static final int START_WAVES = 6;
+    static final int PAUSE = 7; // marker only, playback runs straight through
+    static final int RESUME = 8; // marker only
+    static final int END = 0;
+
+    private final long seed;
+    private final String map;
+    private final String mode;
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    private long lastTick = 0; // tick of the previous record
+    private int commandCount = 0;
+
+    // Playback state
+    private DataInputStream in;
+    private long nextTick = -1; // tick of the next command to apply, -1 = none left
+    private int nextOpcode;
+
+    public CommandLog(long seed, String map, String mode) {
+        this.seed = seed;
+        this.map = map;
+        this.mode = mode;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public String getMap() {
+        return map;
+    }
+
+    public String getMode() {
+        return mode;
+    }
+
+    public int getCommandCount() {
+        return commandCount;
+    }
+
+    // ==================== RECORDING ====================
+
+    /**
+     * Append a command given at the given simulation tick
+     */
+    public void record(long tick, int opcode, int... args) {
+        writeVarLong(tick - lastTick);
+        bytes.write(opcode);
+        for (int arg : args) {
+            writeVarLong(arg);
+        }
+        lastTick = tick;
+        commandCount++;
+    }
+
+    /**
+     * Write the log to a file, closing it with an END record at the given tick
+     */
+    public void save(Path path, long endTick) throws IOException {
+        ByteArrayOutputStream file = new ByteArrayOutputStream(bytes.size() + 64);
+        DataOutputStream out = new DataOutputStream(file);
+        out.writeInt(MAGIC);
+        out.writeLong(seed);
+        out.writeUTF(map);
+        out.writeUTF(mode);
+        bytes.writeTo(out);
+        long delta = Math.max(0, endTick - lastTick);
+        out.flush();
+        writeVarLong(file, delta);
+        file.write(END);
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        Files.write(path, file.toByteArray());
+    }
+
+    private void writeVarLong(long value) {
+        writeVarLong(bytes, value);
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    // ==================== PLAYBACK ====================
+
+    /**
+     * Load a saved log, ready to be played back from tick 0
+     */
+    public static CommandLog load(Path path) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(path)));
+        if (in.readInt() != MAGIC) {
+            throw new IOException(path + " is not a command log");
+        }
+        CommandLog log = new CommandLog(in.readLong(), in.readUTF(), in.readUTF());
+        log.in = in;
+        log.readNext();
+        return log;
+    }
+
+    // Read the header of the next record (tick and opcode)
+    private void readNext() throws IOException {
+        nextTick = (nextTick < 0 ? 0 : nextTick) + readVarLong(in);
+        nextOpcode = in.readUnsignedByte();
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    /**
+     * Whether every command up to the END record has been applied
+     */
+    public boolean isFinished() {
+        return in == null || nextOpcode == END;
+    }
+
+    /**
+     * Tick of the END record (valid once loaded)
+     */
+    public long getNextTick() {
+        return nextTick;
+    }
+
+    /**
+     * Apply every command recorded for the match's current tick.
+     * Call before each simulation step.
+     */
+    public void applyDue(GameManager game) {
+        long tick = game.getClock().getTicks();
+        try {
+            while (!isFinished() && nextTick <= tick) {
+                apply(game, nextOpcode);
+                readNext();
+            }
+        } catch (EOFException e) {
+            nextOpcode = END; // truncated log (e.g. the process was killed), stop here
+        } catch (IOException e) {
+            throw new IllegalStateException("Corrupt command log", e);
+        }
+    }
+
+    private void apply(GameManager game, int opcode) throws IOException {
+        int[] args = new int[argCount(opcode)];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = readInt();
+        }
+        execute(game, opcode, args);
+    }
+
+    /**
+     * Number of arguments recorded with an opcode
+     */
+    static int argCount(int opcode) throws IOException {
+        switch (opcode) {
+            case BEGIN_CONSTRUCTION:
+            case CANCEL_CONSTRUCTION:
+                return 1;
+            case PLACE:
+                return 3;
+            case SELL:
+            case REPAIR:
+                return 2;
+            case START_WAVES:
+            case PAUSE:
+            case RESUME:
+                return 0;
+            default:
+                throw new IOException("Unknown opcode " + opcode);
+        }
+    }
+
+    /**
+     * Carry out one recorded command (playback and rewind re-simulation)
+     */
+    static void execute(GameManager game, int opcode, int[] args) {
+        switch (opcode) {
+            case BEGIN_CONSTRUCTION:
+                game.beginConstruction(game.getIconAt(args[0]));
+                break;
+            case CANCEL_CONSTRUCTION:
+                game.cancelConstruction(game.getIconAt(args[0]));
+                break;
+            case PLACE:
+                game.placeBuilding(game.getIconAt(args[0]), args[1], args[2]);
+                break;
+            case SELL:
+                game.sellBuilding(game.getBuildingAt(args[0], args[1]));
+                break;
+            case REPAIR:
+                game.toggleRepair(game.getBuildingAt(args[0], args[1]));
+                break;
+            case START_WAVES:
+                game.startWaves();
+                break;
+            default:
+                break; // PAUSE and RESUME are markers only
+        }
+    }
+
+    private int readInt() throws IOException {
+        return (int) readVarLong(in);
+    }
+}
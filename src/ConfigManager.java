@@ -1,5 +1,6 @@
 import java.io.File;
 import java.io.FileReader;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import com.google.gson.Gson;
@@ -14,17 +15,27 @@ import com.google.gson.JsonObject;
  * - resources/config/buildings.json
  * - resources/config/enemies.json
  * - resources/config/weapons.json
+ *
+ * A config variant (balance runs) is a directory holding any of these files;
+ * files present there replace the defaults, missing ones fall back to them.
  */
 public class ConfigManager {
     private static final String CONFIG_PATH = "resources/config/";
     private static final Gson gson = new Gson();
+    public static final int DEFAULT_TARGET_WEIGHT = 100; // for buildings an enemy's targetWeights do not list
     
     private Map<String, BuildingStats> buildingStats;
     private Map<String, EnemyStats> enemyStats;
     private Map<String, WeaponDefinition> weaponStats;
     private boolean loaded = false;
+    private final String overridePath; // config variant directory, null = defaults only
     
     public ConfigManager() {
+        this(null);
+    }
+    
+    public ConfigManager(String overridePath) {
+        this.overridePath = overridePath;
         this.buildingStats = new HashMap<>();
         this.enemyStats = new HashMap<>();
         this.weaponStats = new HashMap<>();
@@ -41,6 +52,7 @@ public class ConfigManager {
             loadWeaponConfigs();
             loadBuildingConfigs();
             loadEnemyConfigs();
+            resolveTargetWeights();
             loaded = true;
             System.out.println("[ConfigManager] Loaded " + weaponStats.size() + " weapon types");
             System.out.println("[ConfigManager] Loaded " + buildingStats.size() + " building types");
@@ -51,11 +63,24 @@ public class ConfigManager {
         }
     }
     
+    /**
+     * Pick the variant's copy of a config file if it has one, else the default
+     */
+    private File resolveConfigFile(String fileName) {
+        if (overridePath != null) {
+            File override = new File(overridePath, fileName);
+            if (override.exists()) {
+                return override;
+            }
+        }
+        return new File(CONFIG_PATH + fileName);
+    }
+    
     /**
      * Load weapon configuration from weapons.json
      */
     private void loadWeaponConfigs() throws Exception {
-        File file = new File(CONFIG_PATH + "weapons.json");
+        File file = resolveConfigFile("weapons.json");
         if (!file.exists()) {
             System.err.println("[ConfigManager] weapons.json not found at " + file.getAbsolutePath());
             return;
@@ -76,7 +101,7 @@ public class ConfigManager {
      * Load building configuration from buildings.json
      */
     private void loadBuildingConfigs() throws Exception {
-        File file = new File(CONFIG_PATH + "buildings.json");
+        File file = resolveConfigFile("buildings.json");
         if (!file.exists()) {
             System.err.println("[ConfigManager] buildings.json not found at " + file.getAbsolutePath());
             return;
@@ -88,6 +113,7 @@ public class ConfigManager {
             for (int i = 0; i < buildingsArray.size(); i++) {
                 JsonObject buildingObj = buildingsArray.get(i).getAsJsonObject();
                 BuildingStats stats = parseBuildingStats(buildingObj);
+                stats.typeIndex = i;
                 buildingStats.put(stats.name, stats);
             }
         }
@@ -97,7 +123,7 @@ public class ConfigManager {
      * Load enemy configuration from enemies.json
      */
     private void loadEnemyConfigs() throws Exception {
-        File file = new File(CONFIG_PATH + "enemies.json");
+        File file = resolveConfigFile("enemies.json");
         if (!file.exists()) {
             System.err.println("[ConfigManager] enemies.json not found at " + file.getAbsolutePath());
             return;
@@ -114,6 +140,32 @@ public class ConfigManager {
         }
     }
     
+    /**
+     * Resolve every enemy's targetWeights into a table indexed by building type,
+     * so target selection does no string work: exact building name first, then
+     * lowercase, else DEFAULT_TARGET_WEIGHT
+     */
+    private void resolveTargetWeights() {
+        int types = 0;
+        for (BuildingStats building : buildingStats.values()) {
+            types = Math.max(types, building.typeIndex + 1);
+        }
+        for (EnemyStats enemy : enemyStats.values()) {
+            int[] table = new int[types];
+            Arrays.fill(table, DEFAULT_TARGET_WEIGHT);
+            for (BuildingStats building : buildingStats.values()) {
+                Integer weight = enemy.targetWeights.get(building.name);
+                if (weight == null) {
+                    weight = enemy.targetWeights.get(building.name.toLowerCase());
+                }
+                if (weight != null) {
+                    table[building.typeIndex] = weight;
+                }
+            }
+            enemy.weightByBuildingType = table;
+        }
+    }
+    
     /**
      * Parse a building stats object from JSON
      */
@@ -141,6 +193,17 @@ public class ConfigManager {
         if (obj.has("buildLimit")) {
             stats.buildLimit = obj.get("buildLimit").getAsInt();
         }
+        if (obj.has("income")) {
+            double period = obj.has("incomePeriod") ? obj.get("incomePeriod").getAsDouble() : 0;
+            if (period > 0) {
+                stats.income = obj.get("income").getAsInt();
+                stats.incomePeriod = period;
+            } else {
+                // Paying every 0 seconds would never leave the timer wheel
+                System.err.println("[ConfigManager] " + stats.name
+                        + " has income but no positive incomePeriod, ignoring its income");
+            }
+        }
         
         // Parse prerequisites
         if (obj.has("prerequisites")) {
@@ -159,6 +222,23 @@ public class ConfigManager {
             }
         }
         
+        // Parse auras
+        if (obj.has("auras")) {
+            JsonArray aurasArray = obj.get("auras").getAsJsonArray();
+            for (int i = 0; i < aurasArray.size(); i++) {
+                JsonObject auraObj = aurasArray.get(i).getAsJsonObject();
+                AuraStats aura = new AuraStats();
+                aura.stat = auraObj.get("stat").getAsString();
+                aura.multiplier = auraObj.get("multiplier").getAsDouble();
+                if (!AuraStats.RANGE.equals(aura.stat) && !AuraStats.ROF.equals(aura.stat)
+                        && !AuraStats.DAMAGE.equals(aura.stat)) {
+                    System.err.println("[ConfigManager] Unknown aura stat '" + aura.stat + "' on " + stats.name);
+                    continue;
+                }
+                stats.auras.add(aura);
+            }
+        }
+        
         return stats;
     }
     
@@ -0,0 +1,217 @@
+import java.util.ArrayList;
+
+/**
+ * Kromer and power ledger of a match.
+ *
+ * Power is an aggregate over the placed buildings: a building counts from the
+ * moment it joins the match (register) until it is destroyed or sold
+ * (unregister), so a building that fails placement never touched it. Income
+ * comes from producers, buildings whose config has an income (Headquarter,
+ * Oil Rig); each has a timer on the match's normal wheel while waves are
+ * running. Payments that come due during a tick are collected and credited
+ * in one go once the wheels are done (settle), so everything else in the
+ * tick sees the same balance whatever order the timers ran in.
+ *
+ * Responsibilities:
+ * - Hold the kromer balance (earn, spend, refunds)
+ * - Keep the power aggregate on build and destroy
+ * - Register producers and pay their income once per tick
+ * - Hand the UI a read-only view of the numbers
+ */
+public class Economy {
+    public static final int STARTING_KROMER = 1000;
+    public static final int SANDBOX_KROMER = 999999;
+
+    /**
+     * Read-only numbers for the UI, replaced whenever one of them changes
+     */
+    public static final class View {
+        public final int kromer;
+        public final int power;
+
+        View(int kromer, int power) {
+            this.kromer = kromer;
+            this.power = power;
+        }
+
+        public boolean isDeficit() {
+            return power < 0;
+        }
+    }
+
+    // A building that pays income, with its payment timer
+    private final class Producer {
+        final Building building;
+        final int amount; // kromer per payment
+        final double period; // seconds between payments
+        final TimerWheel.Timer timer = new TimerWheel.Timer(this::pay);
+
+        Producer(Building building, int amount, double period) {
+            this.building = building;
+            this.amount = amount;
+            this.period = period;
+        }
+
+        private void pay() {
+            pending += amount;
+            game.getTimers().schedule(timer, period);
+        }
+    }
+
+    private final GameManager game;
+    private final ArrayList<Producer> producers = new ArrayList<>(); // in registration order
+    private int kromer = STARTING_KROMER;
+    private int power = 0;
+    private int pending = 0; // income that came due this tick, credited by settle
+    private boolean incomeRunning = false; // producers only pay during waves
+    private View view = new View(kromer, power);
+
+    public Economy(GameManager game) {
+        this.game = game;
+    }
+
+    // ==================== KROMER ====================
+
+    public int getKromer() {
+        return kromer;
+    }
+
+    public boolean canAfford(int cost) {
+        return kromer >= cost;
+    }
+
+    public void earn(int amount) {
+        kromer += amount;
+    }
+
+    public void spend(int amount) {
+        kromer -= amount;
+    }
+
+    /**
+     * Set the balance (mode start, snapshot loading)
+     */
+    public void setKromer(int kromer) {
+        this.kromer = kromer;
+    }
+
+    // ==================== POWER ====================
+
+    public int getPower() {
+        return power;
+    }
+
+    public boolean isDeficit() {
+        return power < 0;
+    }
+
+    // ==================== BUILDINGS ====================
+
+    /**
+     * A building joined the match: count its power, and start paying its income if it has one
+     */
+    public void register(Building building) {
+        Producer producer = add(building);
+        if (producer != null && incomeRunning) {
+            game.getTimers().schedule(producer.timer, producer.period);
+        }
+    }
+
+    /**
+     * Count a restored building without scheduling its income (its timer is restored from the snapshot)
+     */
+    void restore(Building building) {
+        add(building);
+    }
+
+    private Producer add(Building building) {
+        power += building.power;
+        BuildingStats stats = game.getConfigManager().getBuildingStats(building.getClass().getSimpleName());
+        if (stats == null || stats.income <= 0 || stats.incomePeriod <= 0) {
+            return null;
+        }
+        Producer producer = new Producer(building, stats.income, stats.incomePeriod);
+        producers.add(producer);
+        return producer;
+    }
+
+    /**
+     * A building left the match (destroyed or sold): take its power back out and stop its income
+     */
+    public void unregister(Building building) {
+        power -= building.power;
+        int index = indexOf(building);
+        if (index >= 0) {
+            game.getTimers().cancel(producers.remove(index).timer);
+        }
+    }
+
+    /**
+     * Start paying income, from the first wave on
+     */
+    public void startIncome() {
+        incomeRunning = true;
+        for (Producer producer : producers) {
+            if (!producer.timer.isScheduled()) {
+                game.getTimers().schedule(producer.timer, producer.period);
+            }
+        }
+    }
+
+    /**
+     * Payment timer of a producing building, null if it has no income (snapshots)
+     */
+    TimerWheel.Timer incomeTimer(Building building) {
+        int index = indexOf(building);
+        return index >= 0 ? producers.get(index).timer : null;
+    }
+
+    private int indexOf(Building building) {
+        for (int i = 0; i < producers.size(); i++) {
+            if (producers.get(i).building == building) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // ==================== TICK ====================
+
+    /**
+     * Credit the income that came due this tick; call once the timer wheels have run
+     */
+    public void settle() {
+        if (pending != 0) {
+            kromer += pending;
+            pending = 0;
+        }
+    }
+
+    // ==================== VIEW ====================
+
+    /**
+     * Current numbers for the UI; the same object until one of them changes
+     */
+    public View view() {
+        if (view.kromer != kromer || view.power != power) {
+            view = new View(kromer, power);
+        }
+        return view;
+    }
+
+    // ==================== RESET ====================
+
+    /**
+     * Start over with no buildings and the given balance (new match)
+     */
+    public void reset(int kromer) {
+        for (Producer producer : producers) {
+            game.getTimers().cancel(producer.timer);
+        }
+        producers.clear();
+        this.kromer = kromer;
+        power = 0;
+        pending = 0;
+        incomeRunning = false;
+    }
+}
@@ -38,6 +38,7 @@ public class EnemyStats {
     
     // Targeting weights (for building selection)
     public HashMap<String, Integer> targetWeights; // e.g., {"Headquarter": 50, "AutoCannon": 150}
+    public int[] weightByBuildingType = new int[0]; // targetWeights resolved per BuildingStats.typeIndex at load
     
     // Metadata
     public String description;
@@ -1,20 +1,32 @@
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Manages game loop timing and update logic.
  * Separates timing concerns from rendering.
  * 
  * Responsibilities:
- * - Delta time calculation
- * - Game state updates (instances, wave, range boost)
+ * - Fixed-step timing (speed levels and turbo) and the achieved speed readout
+ * - Game state updates (timers, instances, wave)
+ * - Parallel turret sense phase before the serial update (act) phase
  * - Build/repair/sell mode interactions
  * - Cursor updates based on game mode
  */
 public class GameLoop {
-    private long lastUpdateTime = 0;
+    public static final float FIXED_STEP = 1.0f / 60.0f; // simulated seconds per tick, at every speed
+    public static final int TURBO = 0; // speed multiplier meaning "as many steps as the CPU allows"
+    private static final double PRE_WAVE_MULTIPLIER = 100.0; // build phase before wave 1
+    private static final long FRAME_BUDGET_NANOS = 12_000_000L; // of a 16.7 ms frame, the rest is input and painting
+    private static final double MULTIPLIER_WINDOW = 0.5; // real seconds per achieved multiplier sample
+    
     private int timer = 0; // Increments each update, used for animations
+    private double accumulator = 0; // simulated seconds owed but not stepped yet
+    private double windowReal = 0, windowSim = 0; // current measurement window
+    private double achievedMultiplier = 1;
+    private CommandLog replay; // recorded commands fed back into the match, null = live play
     
     private final GameManager gameManager;
+    private final SensePhase sensePhase = new SensePhase(ForkJoinPool.commonPool()); // turret target acquisition
     
     public GameLoop(GameManager gameManager) {
         this.gameManager = gameManager;
@@ -24,20 +36,104 @@ public class GameLoop {
      * Reset the game loop state (called when starting a new game)
      */
     public void reset() {
-        lastUpdateTime = 0;
+        gameManager.getClock().resync();
         timer = 0;
+        accumulator = 0;
+        windowReal = 0;
+        windowSim = 0;
+        achievedMultiplier = 1;
+    }
+    
+    /**
+     * Sample the real time elapsed since the previous frame (System.nanoTime via SimClock).
+     * Call once per frame, also while paused, so resuming does not see the gap.
+     */
+    public float sampleRealDelta() {
+        return gameManager.getClock().sampleRealDelta();
+    }
+    
+    /**
+     * Advance the simulation for one rendered frame in fixed FIXED_STEP ticks.
+     * Speed never changes the step length, only how many steps run per frame:
+     * - a multiplier (1, 2, 8, 32, ...) runs realDelta * multiplier worth of steps,
+     *   wave 0 (pre-game build phase) always runs PRE_WAVE_MULTIPLIER
+     * - TURBO runs as many steps as fit in the frame budget
+     * Steps that do not fit in the frame budget are dropped rather than carried
+     * over, so a slow machine runs slower instead of freezing.
+     * A replay stops at the tick of its END record (see isReplayOver).
+     * Returns the number of steps run.
+     */
+    public int advance(float realDelta, int multiplier, int wave) {
+        SimClock clock = gameManager.getClock();
+        double simBefore = clock.now();
+        long deadline = System.nanoTime() + FRAME_BUDGET_NANOS;
+        int steps = 0;
+        
+        if (multiplier == TURBO) {
+            do {
+                if (isReplayOver()) {
+                    break;
+                }
+                updateGameObjects(FIXED_STEP);
+                steps++;
+            } while (System.nanoTime() < deadline && !gameManager.isGameOver());
+            accumulator = 0;
+        } else {
+            accumulator += realDelta * (wave == 0 ? PRE_WAVE_MULTIPLIER : multiplier);
+            while (accumulator >= FIXED_STEP) {
+                if (isReplayOver()) {
+                    accumulator = 0;
+                    break;
+                }
+                if (System.nanoTime() >= deadline) {
+                    accumulator = 0; // can't keep up, drop the backlog
+                    break;
+                }
+                updateGameObjects(FIXED_STEP);
+                accumulator -= FIXED_STEP;
+                steps++;
+            }
+        }
+        
+        measureMultiplier(realDelta, clock.now() - simBefore);
+        return steps;
+    }
+    
+    // Average simulated/real time over a short window for the on-screen readout
+    private void measureMultiplier(double realDelta, double simDelta) {
+        windowReal += realDelta;
+        windowSim += simDelta;
+        if (windowReal >= MULTIPLIER_WINDOW) {
+            achievedMultiplier = windowSim / windowReal;
+            windowReal = 0;
+            windowSim = 0;
+        }
+    }
+    
+    /**
+     * Play back a recorded command log (null to go back to live play)
+     */
+    public void setReplay(CommandLog replay) {
+        this.replay = replay;
+    }
+    
+    public CommandLog getReplay() {
+        return replay;
     }
     
     /**
-     * Calculate delta time based on current time and time scale.
-     * Also accounts for wave 0 which updates slower initially.
+     * Whether the replay has applied every command and reached the tick of its
+     * END record, where the recorded match was saved (false in live play)
      */
-    public float calculateDeltaTime(boolean fastForward, int wave) {
-        long currentTime = System.currentTimeMillis();
-        float timeScale = Math.min(fastForward ? 500.0f : 1000.0f, wave == 0 ? 10.0f : 1000.0f);
-        float deltaTime = lastUpdateTime == 0 ? 0 : (currentTime - lastUpdateTime) / timeScale;
-        lastUpdateTime = currentTime;
-        return deltaTime;
+    public boolean isReplayOver() {
+        return replay != null && replay.isFinished() && gameManager.getClock().getTicks() >= replay.getNextTick();
+    }
+    
+    /**
+     * Simulated seconds per real second over the last measurement window
+     */
+    public double getAchievedMultiplier() {
+        return achievedMultiplier;
     }
     
     /**
@@ -47,6 +143,13 @@ public class GameLoop {
         timer += 1;
     }
     
+    /**
+     * Turret target acquisition phase (to pick its pool, or make it serial)
+     */
+    public SensePhase getSensePhase() {
+        return sensePhase;
+    }
+    
     /**
      * Get the current universal game timer
      */
@@ -56,36 +159,42 @@ public class GameLoop {
     
     /**
      * Update all game objects and state.
-     * This is the main update loop.
+     * This is the main update loop, shared by the Swing front end and headless runs.
      */
-    public void updateGameObjects(float deltaTime, 
-                          List<Instance> instances, List<Instance> iQueue) {
+    public void updateGameObjects(float deltaTime) {
+        List<Instance> instances = gameManager.getInstances();
+        
+        // Replays apply the commands recorded at this tick before it is simulated
+        if (replay != null) {
+            replay.applyDue(gameManager);
+        }
+        
+        // Simulated time only moves here, so paused frames never advance it
+        gameManager.getClock().advance(deltaTime);
+        
+        // Run the timers that come due (construction, income, repairs)
+        gameManager.advanceTimers(deltaTime);
         
         // Update wave system
         int currentWave = gameManager.getWave();
-        WaveManager.update(deltaTime, currentWave);
-        int newWave = WaveManager.updateWaveCompletion(deltaTime, currentWave);
+        WaveManager waveManager = gameManager.getWaveManager();
+        waveManager.update(deltaTime, currentWave);
+        int newWave = waveManager.updateWaveCompletion(deltaTime, currentWave);
         if (newWave != currentWave) {
             gameManager.setWave(newWave);
         }
 
-        // Apply dynamic range boost from Radar Dish (if present)
-        boolean hasRadar = false;
-        for (Instance inst : instances) {
-            if (inst instanceof RadarDish && inst.isAlive()) {
-                hasRadar = true;
-                break;
-            }
-        }
-        double rangeBoost = hasRadar ? 1.25 : 1.0;
-        for (Instance inst : instances) {
-            if (inst instanceof Building) {
-                inst.rangeMult = rangeBoost;
-            }
-        }
-
-        // Update all instances
-        for (Instance instance : instances) {
+        // Sense: every awake turret picks its target from the same start-of-tick world
+        RangeZones zones = gameManager.getZones();
+        zones.update(instances);
+        sensePhase.run(instances, zones, deltaTime);
+        
+        // Update all instances; spawns and damage go through the command buffer,
+        // keyed by the producer's position in this order
+        for (int i = 0; i < instances.size(); i++) {
+            Instance instance = instances.get(i);
+            instance.updateOrder = i;
+            instance.commandSeq = 0;
             if (instance.isAlive()) {
                 instance.update(deltaTime);
                 instance.routine(deltaTime);
@@ -103,12 +212,15 @@ public class GameLoop {
             }
         }
         
-        // Add queued instances and remove dead ones
-        if (!iQueue.isEmpty()) {
-            instances.addAll(iQueue);
-            iQueue.clear();
+        // Apply the tick's spawns, damage and kills, then remove the dead
+        gameManager.applyCommands();
+        gameManager.removeDeadInstances();
+        
+        // Tick boundary: record the delta for rewinding
+        RewindBuffer rewind = gameManager.getRewind();
+        if (rewind != null) {
+            rewind.captureTick();
         }
-        instances.removeIf(instance -> !instance.isAlive());
     }
     
     /**
@@ -1,57 +1,204 @@
+import java.awt.Point;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 
 /**
  * Centralized manager for all game state.
  * Replaces static fields scattered throughout Gamma class.
  * This allows for easier testing, multiple game instances, and cleaner architecture.
+ *
+ * One GameManager is one match (the "world"): map, instances, economy, waves,
+ * clock and RNG. Instances, turrets, weapons and projectiles keep a reference to
+ * the match they belong to, so any number of matches can run side by side in
+ * one JVM (e.g. one headless match per thread).
  */
-public class GameManager {
-    private static GameManager instance;
-    
-    private List<Instance> instances;
-    private List<Instance> instanceQueue; // Buffer for new instances added during updates
+public final class GameManager {
+    private InstanceArena instances; // live instances, with handles for turrets and projectiles
+    private CommandBuffer commands; // spawns, damage and kills made during a tick, applied at its end
     private MapManager currentMap;
     private ConfigManager configManager;
+    private SimClock clock; // simulation time source for this match
+    private TimerWheel timers; // income, repairs and enemy turret timers
+    private TimerWheel poweredTimers; // building turrets, weapons and construction, half speed in a power deficit
+    private WaveManager waveManager; // wave spawning and progress for this match
+    private RangeZones zones; // occupied path segments, lets idle turrets sleep
+    private BuildingRanges buildingRanges; // building cells near each path segment (enemy targeting)
+    private Economy economy; // kromer balance, power aggregate and income
+    private Auras auras; // building modifiers from aura buildings (Radar Dish)
+    private Census census; // placed buildings per type (build limits, prerequisites)
+    private long seed; // seed of the match RNG, reapplied on every startMatch
+    private SimRandom random; // root RNG of the match, entities get their own streams split from it
     
-    private int power;
-    private int kromer;
     private int wave;
     
+    private String mode = "normal"; // normal | paper armor | blitzkrieg | sandbox
+    private String currentMapName = "plain";
+    private boolean headless = false; // no window: skip visual-only work, never exit the JVM
+    private boolean gameOver = false; // set when the Headquarter is destroyed
+    private Runnable mapChangedListener; // notified when buildings are placed or removed (build mode overlay)
+    private CommandLog recorder; // player commands of this match, null = not recording
+    private MatchSnapshot snapshots; // save/load buffer, created on first use
+    private RewindBuffer rewind; // rewind history of this match, null = off
+    private boolean commandsMuted = false; // re-simulating already recorded commands
+    private Path recordingPath; // where the recording is saved when the match ends
+    
+    // Build menu entries and their construction state
+    private List<Icon> productive = new ArrayList<>();
+    private List<Icon> offensive = new ArrayList<>();
+    private HashMap<Class<?>, Icon> iconByClass = new HashMap<>();
+    private HashMap<String, Icon> iconByName = new HashMap<>(); // lower case class name
+    private boolean productiveUnderConstruction = false;
+    private boolean offensiveUnderConstruction = false;
+    
+    private HashMap<String, Long> damageByWeapon = new HashMap<>(); // damage dealt this match per weapon name
+    
     public GameManager() {
-        this.instances = new ArrayList<>();
-        this.instanceQueue = new ArrayList<>();
+        this(new ConfigManager());
+    }
+    
+    /**
+     * Create a match that reads its stats from the given configs.
+     * Configs are read-only once loaded, so parallel matches can share them.
+     */
+    public GameManager(ConfigManager configManager) {
+        this.instances = new InstanceArena();
+        this.commands = new CommandBuffer(this);
         this.currentMap = new MapManager();
-        this.configManager = new ConfigManager();
+        this.configManager = configManager;
+        this.clock = new SimClock();
+        this.timers = new TimerWheel();
+        this.poweredTimers = new TimerWheel();
+        this.waveManager = new WaveManager(this);
+        this.zones = new RangeZones(this);
+        this.buildingRanges = new BuildingRanges(this);
+        this.economy = new Economy(this);
+        this.auras = new Auras(this);
+        this.census = new Census(this);
+        this.seed = System.nanoTime();
+        this.random = new SimRandom(seed);
         
-        this.power = 0;
-        this.kromer = 1000;
         this.wave = 0;
+    }
+    
+    // ==================== MATCH ====================
+    
+    /**
+     * Set up a fresh match on the given map and mode.
+     * Used by the Swing front end and by headless runs alike.
+     */
+    public void startMatch(String mapName, String mode) {
+        startEmptyMatch(mapName, mode);
+        
+        // Starting instances: the placeholder Empty and the Headquarter
+        Point hq = currentMap.getHeadquarterPoint();
+        addInstance(new Empty(this));
+        addInstance(new Headquarter(this, hq.x, hq.y));
+        
+        // Mode configuration - set Kromer based on selected mode
+        initializeKromerForMode(mode);
+    }
+    
+    /**
+     * Reset and lay out the map, without any instances yet
+     * (startMatch adds the starting ones, snapshots their saved ones)
+     */
+    public void startEmptyMatch(String mapName, String mode) {
+        reset();
+        this.mode = mode;
+        this.currentMapName = mapName;
+        this.random = new SimRandom(seed);
         
-        // Set as singleton instance
-        if (instance == null) {
-            instance = this;
+        // Map selection (extend when new maps are added)
+        if ("outer space".equalsIgnoreCase(mapName)) {
+            currentMap = new OuterSpaceMap();
+        } else {
+            currentMap = new PlainMap(); // plain and fallback
         }
     }
     
-    public static GameManager getInstance() {
-        if (instance == null) {
-            instance = new GameManager();
+    /**
+     * Start wave 1 from the pre-game intermission
+     */
+    public void startWaves() {
+        if (wave == 0 && !waveManager.waveActive) {
+            setWave(1);
+            waveManager.startWave(1);
+            record(CommandLog.START_WAVES);
         }
-        return instance;
+    }
+    
+    public String getMode() {
+        return mode;
+    }
+    
+    public String getMapName() {
+        return currentMapName;
+    }
+    
+    public boolean isHeadless() {
+        return headless;
+    }
+    
+    public void setHeadless(boolean headless) {
+        this.headless = headless;
+    }
+    
+    public boolean isGameOver() {
+        return gameOver;
+    }
+    
+    /**
+     * Called when the Headquarter is destroyed.
+     * Interactive games end the process, headless runs just stop the match.
+     */
+    public void headquarterDestroyed() {
+        gameOver = true;
+        stopRecording();
+        if (!headless) {
+            System.err.println("rip BOZO");
+            System.exit(404);
+        }
+    }
+    
+    public void setMapChangedListener(Runnable listener) {
+        this.mapChangedListener = listener;
     }
     
     // ==================== INSTANCES ====================
     
+    /**
+     * Add an instance to the game, return success or failure.
+     * Buildings are validated and placed immediately (occupancy and adjacency),
+     * so only place them between ticks (player commands, match setup);
+     * everything else is spawned through the command buffer at the end of the tick.
+     */
     public boolean addInstance(Instance instance, boolean restricted) {
-        // Validation happens here before adding
         if (instance instanceof Building) {
             Building building = (Building) instance;
             if (!canPlaceBuilding(building.x, building.y, building.width, building.height, restricted)) {
-                return false;
+                return false; // failed to add building
+            }
+            instances.add(instance);
+            int range = (int) Math.round(getBuildRange(building));
+            for (int x = building.x; x < building.x + building.width; x++) {
+                for (int y = building.y; y < building.y + building.height; y++) {
+                    // Add the building's occupied cell to buildingOccupancy
+                    currentMap.putBuildingCell(new Point(x, y), building);
+                    addAdjacency(x, y, range);
+                }
+            }
+            economy.register(building);
+            auras.placed(building);
+            census.placed(building);
+            if (mapChangedListener != null) {
+                mapChangedListener.run();
             }
+            return true;
         }
-        instanceQueue.add(instance);
+        commands.spawn(null, instance);
         return true;
     }
     
@@ -60,66 +207,473 @@ public class GameManager {
     }
     
     /**
-     * Flushes the instance queue into the main instances list.
-     * Call this once per update cycle.
+     * Drop a building that failed placement. It never joined the match, so
+     * neither the economy nor the occupancy counted it; only its flag is left.
      */
-    public void flushInstanceQueue() {
-        instances.addAll(instanceQueue);
-        instanceQueue.clear();
+    public void discardBuilding(Building building) {
+        building.alive = false;
     }
     
     /**
-     * Returns the actual instances list (not a copy).
+     * A placed building was destroyed or sold: take it out of the economy, auras and census
+     */
+    void buildingRemoved(Building building) {
+        economy.unregister(building);
+        auras.removed(building);
+        census.removed(building);
+    }
+    
+    /**
+     * Count a building restored by a snapshot as placed (its income timer is restored separately)
+     */
+    void buildingRestored(Building building) {
+        economy.restore(building);
+        auras.placed(building);
+        census.placed(building);
+    }
+    
+    /**
+     * Structural changes of the running tick (spawn, damage, despawn)
+     */
+    public CommandBuffer getCommands() {
+        return commands;
+    }
+    
+    /**
+     * Apply the spawns, damage and kills buffered during the tick.
+     * Call this once per update cycle, after the update phases.
+     */
+    public void applyCommands() {
+        commands.apply();
+    }
+    
+    /**
+     * Returns the actual instances (not a copy).
      * This allows external code to call .clear() and have it affect the real list.
      */
-    public List<Instance> getInstances() {
+    public InstanceArena getInstances() {
         return instances;
     }
     
+    /**
+     * Instance behind a handle, null once it has left the match
+     */
+    public Instance resolve(int handle) {
+        return instances.resolve(handle);
+    }
+    
     public void removeDeadInstances() {
-        instances.removeIf(instance -> !instance.isAlive());
+        instances.removeDead();
     }
     
-    private boolean canPlaceBuilding(int x, int y, int width, int height, boolean restricted) {
+    // method to check if a building can be placed at the given position
+    public boolean canPlaceBuilding(int x, int y, int width, int height, boolean restricted) {
         // Check if building would go outside map bounds
-        if (x < 0 || y < 0 || x + width > Location.cols || y + height > Location.rows) {
+        if (x < 0 || y < 0 || x + width > MapManager.COLS || y + height > MapManager.ROWS) {
             return false;
         }
         
-        for (int bx = x; bx < x + width; bx++) {
-            for (int by = y; by < y + height; by++) {
-                if (Location.occupancy.contains(new java.awt.Point(bx, by))) {
-                    return false;
+        // Terrain, other buildings and (restricted) cells out of build range, four table reads
+        return currentMap.getPlacement().canPlace(x, y, width, height, restricted);
+    }
+    
+    /**
+     * Rebuild adjacency (buildable cells) from all remaining buildings.
+     * Call after a building is removed from buildingOccupancy.
+     */
+    public void refreshAdjacency() {
+        currentMap.clearAdjacency();
+        for (Building building : currentMap.getBuildingOccupancy().values()) {
+            int range = (int) Math.round(getBuildRange(building));
+            // Add adjacency for each cell occupied by this building
+            for (Point occupied : building.occupiedCells) {
+                addAdjacency(occupied.x, occupied.y, range);
+            }
+        }
+        if (mapChangedListener != null) {
+            mapChangedListener.run();
+        }
+    }
+    
+    // Mark every in-bounds cell within a circle of the given radius as buildable
+    private void addAdjacency(int x, int y, int range) {
+        for (int dx = -range; dx <= range; dx++) {
+            for (int dy = -range; dy <= range; dy++) {
+                int nx = x + dx;
+                int ny = y + dy;
+                // Check if within circle radius
+                if (dx * dx + dy * dy <= range * range) {
+                    // Check bounds
+                    if (nx >= 0 && ny >= 0 && nx < MapManager.COLS && ny < MapManager.ROWS) {
+                        currentMap.addAdjacentCell(nx, ny);
+                    }
                 }
             }
         }
+    }
+    
+    // Get the buildRange from the Icon associated with this building's class
+    private double getBuildRange(Building building) {
+        Icon icon = iconByClass.get(building.getClass());
+        return icon != null ? icon.stats.buildRange : 1.0;
+    }
+    
+    // ==================== CONSTRUCTION ====================
+    
+    /**
+     * Initialize building list from ConfigManager.
+     * Call once after the configs are loaded.
+     */
+    public void initIcons() {
+        productive.clear();
+        offensive.clear();
+        iconByClass.clear();
+        iconByName.clear();
+        
+        // Define the building load order for UI display
+        String[] buildingOrder = {
+                "Headquarter", "PowerPlant", "OilRig", "RadarDish", "HeavyOrdnanceCenter",
+                "AutoCannon", "LaserTower", "MissileLauncher"
+        };
+        
+        // Load buildings in defined order to ensure consistent UI display
+        for (String buildingName : buildingOrder) {
+            BuildingStats stats = configManager.getAllBuildingStats().get(buildingName);
+            if (stats != null) {
+                registerIcon(stats);
+            }
+        }
+        
+        // Add any buildings not in the predefined order (for mod support)
+        for (BuildingStats stats : configManager.getAllBuildingStats().values()) {
+            if (iconByClass.containsKey(stats.buildingClass)) {
+                continue; // Already added
+            }
+            registerIcon(stats);
+        }
+    }
+    
+    private void registerIcon(BuildingStats stats) {
+        Icon icon = new Icon(this, stats);
+        
+        if ("productive".equals(stats.buildingType)) {
+            productive.add(icon);
+        } else if ("offensive".equals(stats.buildingType)) {
+            offensive.add(icon);
+        }
+        
+        iconByClass.putIfAbsent(stats.buildingClass, icon);
+        if (stats.buildingClass != null) {
+            iconByName.putIfAbsent(stats.buildingClass.getSimpleName().toLowerCase(), icon);
+        }
+    }
+    
+    public List<Icon> getProductiveIcons() {
+        return productive;
+    }
+    
+    public List<Icon> getOffensiveIcons() {
+        return offensive;
+    }
+    
+    public HashMap<Class<?>, Icon> getIconByClass() {
+        return iconByClass;
+    }
+    
+    /**
+     * Whether a construction in the given category ("productive"/"offensive") is
+     * ongoing or waiting to be placed
+     */
+    public boolean isConstructing(String buildingType) {
+        if ("productive".equals(buildingType)) {
+            return productiveUnderConstruction;
+        } else if ("offensive".equals(buildingType)) {
+            return offensiveUnderConstruction;
+        }
+        return false;
+    }
+    
+    public void setConstructing(String buildingType, boolean constructing) {
+        if ("productive".equals(buildingType)) {
+            productiveUnderConstruction = constructing;
+        } else if ("offensive".equals(buildingType)) {
+            offensiveUnderConstruction = constructing;
+        }
+    }
+    
+    // ==================== COMMANDS ====================
+    
+    /**
+     * Find the build menu entry of a building by name (e.g. "PowerPlant")
+     */
+    public Icon getIcon(String buildingName) {
+        return iconByName.get(buildingName.toLowerCase());
+    }
+    
+    /**
+     * Number of placed buildings of the given class
+     */
+    public int countBuildings(Class<?> buildingClass) {
+        Icon icon = iconByClass.get(buildingClass);
+        return icon != null ? census.count(icon.stats.typeIndex) : 0;
+    }
+    
+    /**
+     * Whether every prerequisite building of this entry is standing
+     */
+    public boolean hasPrerequisites(Icon icon) {
+        return census.satisfies(icon.prerequisiteMask);
+    }
+    
+    /**
+     * Placed buildings per type
+     */
+    public Census getCensus() {
+        return census;
+    }
+    
+    /**
+     * Pay for and start constructing a building, same rules as the build menu.
+     * Returns false if it cannot be started right now.
+     */
+    public boolean beginConstruction(Icon icon) {
+        if (icon.building || icon.ready || isConstructing(icon.stats.buildingType)) {
+            return false; // one construction per category
+        }
+        if (!economy.canAfford(icon.stats.cost) || !hasPrerequisites(icon)) {
+            return false;
+        }
+        if (icon.stats.buildLimit >= 0 && countBuildings(icon.stats.buildingClass) >= icon.stats.buildLimit) {
+            return false;
+        }
+        icon.construct();
+        economy.spend(icon.stats.cost);
+        record(CommandLog.BEGIN_CONSTRUCTION, getIconIndex(icon));
         return true;
     }
     
-    // ==================== RESOURCES ====================
+    /**
+     * Place a finished construction with its top-left cell at (x, y).
+     * Returns false if it is not ready or the cells are not buildable.
+     */
+    public boolean placeBuilding(Icon icon, int x, int y) {
+        if (!icon.ready) {
+            return false;
+        }
+        Building building;
+        try {
+            building = (Building) icon.stats.buildingClass
+                    .getDeclaredConstructor(GameManager.class, int.class, int.class)
+                    .newInstance(this, x, y);
+        } catch (Exception e) {
+            return false; // Failed to create building instance
+        }
+        if (!addInstance(building, true)) {
+            discardBuilding(building);
+            return false;
+        }
+        icon.ready = false;
+        setConstructing(icon.stats.buildingType, false);
+        record(CommandLog.PLACE, getIconIndex(icon), x, y);
+        return true;
+    }
     
-    public int getPower() {
-        return power;
+    /**
+     * Cancel a construction (ongoing or waiting to be placed) and refund it
+     */
+    public void cancelConstruction(Icon icon) {
+        if (icon.building || icon.ready) {
+            icon.reset();
+            setConstructing(icon.stats.buildingType, false);
+            economy.earn(icon.stats.cost); // refund
+            record(CommandLog.CANCEL_CONSTRUCTION, getIconIndex(icon));
+        }
     }
     
-    public void setPower(int power) {
-        this.power = power;
+    /**
+     * Building covering the given cell, or null
+     */
+    public Building getBuildingAt(int cellX, int cellY) {
+        return currentMap.getBuildingOccupancy().get(new Point(cellX, cellY));
     }
     
-    public void addPower(int amount) {
-        this.power += amount;
+    /**
+     * Sell a building for half its cost, scaled by its remaining health.
+     * The Headquarter cannot be sold.
+     */
+    public boolean sellBuilding(Building building) {
+        if (building == null || building instanceof Headquarter) {
+            return false;
+        }
+        Icon icon = iconByClass.get(building.getClass());
+        if (icon == null) {
+            return false;
+        }
+        int refund = (int) (icon.stats.cost * 0.5f * (building.health / (float) building.maxHealth));
+        economy.earn(refund);
+        building.destroy();
+        record(CommandLog.SELL, building.x, building.y);
+        return true;
     }
     
-    public int getKromer() {
-        return kromer;
+    /**
+     * Switch repairing on or off for a damaged building
+     */
+    public boolean toggleRepair(Building building) {
+        if (building == null || building.health >= building.maxHealth) {
+            return false;
+        }
+        building.setRepairing(!building.repairing);
+        record(CommandLog.REPAIR, building.x, building.y);
+        return true;
+    }
+    
+    /**
+     * Mark a pause or resume in the recording (no effect on the simulation)
+     */
+    public void recordPause(boolean paused) {
+        record(paused ? CommandLog.PAUSE : CommandLog.RESUME);
+    }
+    
+    // ==================== RECORDING ====================
+    
+    /**
+     * Record this match's commands, saved to the given path when the match
+     * ends (stopRecording, or the Headquarter is destroyed)
+     */
+    public void startRecording(Path path) {
+        recorder = new CommandLog(seed, currentMapName, mode);
+        recordingPath = path;
+    }
+    
+    /**
+     * Save and stop the current recording, if any
+     */
+    public void stopRecording() {
+        if (recorder == null) {
+            return;
+        }
+        try {
+            recorder.save(recordingPath, clock.getTicks());
+        } catch (IOException e) {
+            System.err.println("[GameManager] Could not save recording: " + e.getMessage());
+        }
+        recorder = null;
+    }
+    
+    private void record(int opcode, int... args) {
+        if (commandsMuted) {
+            return;
+        }
+        if (recorder != null) {
+            recorder.record(clock.getTicks(), opcode, args);
+        }
+        if (rewind != null) {
+            rewind.recordCommand(opcode, args);
+        }
+    }
+    
+    /**
+     * Stop commands from being recorded while already recorded ones are re-simulated
+     */
+    public void setCommandsMuted(boolean muted) {
+        this.commandsMuted = muted;
+    }
+    
+    /**
+     * Stable index of a build menu entry (productive entries first, then offensive)
+     */
+    public int getIconIndex(Icon icon) {
+        int index = productive.indexOf(icon);
+        return index >= 0 ? index : productive.size() + offensive.indexOf(icon);
+    }
+    
+    public Icon getIconAt(int index) {
+        return index < productive.size() ? productive.get(index) : offensive.get(index - productive.size());
+    }
+    
+    // ==================== SNAPSHOT ====================
+    
+    /**
+     * Save the whole match to a binary snapshot (call between ticks)
+     */
+    public void saveSnapshot(Path path) throws IOException {
+        if (snapshots == null) {
+            snapshots = new MatchSnapshot();
+        }
+        snapshots.save(this, path);
+    }
+    
+    /**
+     * Replace this match with a saved one. Any recording is stopped first:
+     * a command log only replays from the start of a match.
+     * On IOException the match is left half loaded and should be reset.
+     */
+    public void loadSnapshot(Path path) throws IOException {
+        stopRecording();
+        if (snapshots == null) {
+            snapshots = new MatchSnapshot();
+        }
+        snapshots.load(this, path);
+        if (mapChangedListener != null) {
+            mapChangedListener.run();
+        }
+    }
+    
+    /**
+     * Replace this match with an in-memory snapshot (rewind keyframes).
+     * Unlike loadSnapshot this keeps the recording going.
+     */
+    public void restoreSnapshot(byte[] data) {
+        if (snapshots == null) {
+            snapshots = new MatchSnapshot();
+        }
+        try {
+            snapshots.load(this, data);
+        } catch (IOException e) {
+            throw new IllegalStateException("Rewind keyframe could not be restored", e);
+        }
+        if (mapChangedListener != null) {
+            mapChangedListener.run();
+        }
+    }
+    
+    // ==================== REWIND ====================
+    
+    /**
+     * Keep a rewind history of this match (null to switch it off)
+     */
+    public void setRewind(RewindBuffer rewind) {
+        this.rewind = rewind;
+        instances.setJournaling(rewind != null); // the rewind buffer reads the structural changes
+    }
+    
+    public RewindBuffer getRewind() {
+        return rewind;
+    }
+    
+    // ==================== RESOURCES ====================
+    
+    /**
+     * Kromer balance, power aggregate and income of this match
+     */
+    public Economy getEconomy() {
+        return economy;
     }
     
-    public void setKromer(int kromer) {
-        this.kromer = kromer;
+    /**
+     * Range, rate of fire and damage modifiers the aura buildings apply to all buildings
+     */
+    public Auras getAuras() {
+        return auras;
     }
     
-    public void addKromer(int amount) {
-        this.kromer += amount;
+    public int getPower() {
+        return economy.getPower();
+    }
+    
+    public int getKromer() {
+        return economy.getKromer();
     }
     
     /**
@@ -127,21 +681,41 @@ public class GameManager {
      */
     public void initializeKromerForMode(String mode) {
         if ("sandbox".equalsIgnoreCase(mode)) {
-            this.kromer = 999999;
+            economy.setKromer(Economy.SANDBOX_KROMER);
         } else {
             // normal, paper armor, blitzkrieg all start with 1000
-            this.kromer = 1000;
+            economy.setKromer(Economy.STARTING_KROMER);
         }
     }
     
+    // ==================== STATS ====================
+    
+    /**
+     * Count damage dealt by a weapon (by weapon name) for balance reports
+     */
+    public void recordDamage(String weaponName, int amount) {
+        damageByWeapon.merge(weaponName, (long) amount, Long::sum);
+    }
+    
+    public HashMap<String, Long> getDamageByWeapon() {
+        return damageByWeapon;
+    }
+    
     // ==================== WAVE ====================
     
     public int getWave() {
         return wave;
     }
     
+    /**
+     * Income only runs during waves: leaving the intermission before wave 1 starts it
+     */
     public void setWave(int wave) {
+        boolean starting = this.wave == 0 && wave > 0;
         this.wave = wave;
+        if (starting) {
+            economy.startIncome();
+        }
     }
     
     public void nextWave() {
@@ -158,6 +732,86 @@ public class GameManager {
         this.currentMap = map;
     }
     
+    public WaveManager getWaveManager() {
+        return waveManager;
+    }
+    
+    public RangeZones getZones() {
+        return zones;
+    }
+    
+    public BuildingRanges getBuildingRanges() {
+        return buildingRanges;
+    }
+    
+    // ==================== CLOCK ====================
+    
+    public SimClock getClock() {
+        return clock;
+    }
+    
+    /**
+     * Timers that run at normal speed (income, repairs, enemy turrets)
+     */
+    public TimerWheel getTimers() {
+        return timers;
+    }
+    
+    /**
+     * Timers of everything that runs on power (building turrets and weapons,
+     * construction); they run at half speed while power is negative
+     */
+    public TimerWheel getPoweredTimers() {
+        return poweredTimers;
+    }
+    
+    /**
+     * Wheel an instance's turrets and weapons time their cooldowns on
+     */
+    public TimerWheel timersFor(Instance owner) {
+        return owner instanceof Building ? poweredTimers : timers;
+    }
+    
+    /**
+     * Advance both wheels by one tick and run what comes due; the powered
+     * wheel is dilated to half speed during a power deficit. Income that came
+     * due is credited once both are done.
+     */
+    public void advanceTimers(float deltaTime) {
+        poweredTimers.setRate(economy.isDeficit() ? TimerWheel.UNITS_PER_TICK / 2 : TimerWheel.UNITS_PER_TICK);
+        timers.advance(deltaTime);
+        poweredTimers.advance(deltaTime);
+        economy.settle();
+    }
+    
+    // ==================== RANDOM ====================
+    
+    /**
+     * Root random source of this match
+     */
+    public SimRandom getRandom() {
+        return random;
+    }
+    
+    /**
+     * New independent random stream for an entity (turret targeting, weapon spread).
+     * Streams are split in creation order, which is deterministic for a given seed and input.
+     */
+    public SimRandom newRandomStream() {
+        return random.split();
+    }
+    
+    public long getSeed() {
+        return seed;
+    }
+    
+    /**
+     * Seed the match RNG, takes effect from the next startMatch
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+    
     // ==================== CONFIG ====================
     
     public ConfigManager getConfigManager() {
@@ -171,11 +825,28 @@ public class GameManager {
      */
     public void reset() {
         instances.clear();
-        instanceQueue.clear();
-        power = 0;
-        kromer = 1000;
+        commands.clear();
+        economy.reset(Economy.STARTING_KROMER);
+        auras.reset();
+        census.reset();
         wave = 0;
+        gameOver = false;
         currentMap.clear();
+        clock.reset();
+        timers.clear();
+        poweredTimers.clear();
+        waveManager.reset();
+        
+        // Reset construction icons state
+        for (Icon icon : productive) {
+            icon.reset();
+        }
+        for (Icon icon : offensive) {
+            icon.reset();
+        }
+        productiveUnderConstruction = false;
+        offensiveUnderConstruction = false;
+        damageByWeapon.clear();
     }
     
     /**
@@ -183,7 +854,6 @@ public class GameManager {
      */
     public void fullReset() {
         reset();
-        power = 0;
         wave = 0;
     }
 }
@@ -2,20 +2,28 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
 import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Comparator;
 
 public class Gamma extends JPanel implements ActionListener, MouseListener, MouseMotionListener, KeyListener {
 
     public static final int FRAME_TIME = 1000 / 60; // milliseconds per frame
+    static final String REPLAY_DIR = "replays"; // every match is recorded here
+    static final String SAVE_DIR = "saves"; // quicksave and autosave slots
+    static final String QUICKSAVE = SAVE_DIR + "/quicksave.bcs"; // F5 saves, F9 loads the latest save
 
     private Timer gameTimer;
-    long lastUpdateTime;
     boolean gameRunning;
-    boolean fastForward;
+    // Speed levels cycled by the fast forward button, TURBO = as fast as the CPU allows
+    static final int[] SPEED_LEVELS = { 1, 2, 8, 32, GameLoop.TURBO };
+    int speedLevel = 0; // index into SPEED_LEVELS
 
     private static Gamma gameInstance;
 
@@ -26,7 +34,7 @@ public class Gamma extends JPanel implements ActionListener, MouseListener, Mous
 
     GameState currentState = GameState.MAIN_MENU;
     String selectedMap = "plain"; // future: support more maps
-    static public String selectedMode = "normal"; // normal | survival | challenge | sandbox
+    String selectedMode = "normal"; // normal | survival | challenge | sandbox
 
     public static final int GAME_WIDTH = 1560; // 13/16 * 1920
     public static final int UI_WIDTH = 360; // 3/16 * 1920
@@ -34,18 +42,14 @@ public class Gamma extends JPanel implements ActionListener, MouseListener, Mous
 
     int uiMid = 1740; // midpoint of the UI panel at 1560 + 180 or 1920 - 180
 
-    private static GameManager gameManager; // REFACTORED: Central game state
-    private static GameLoop gameLoop; // REFACTORED: Timing and update logic
+    private transient GameManager gameManager; // REFACTORED: Central game state (the current match)
+    private transient GameLoop gameLoop; // REFACTORED: Timing and update logic
     private InputManager inputManager; // REFACTORED: Input handling
     private RenderSystem renderSystem; // REFACTORED: Rendering logic
     private BuildingManager buildingManager; // REFACTORED: Build/repair/sell logic
-    private static List<Instance> Instances; // Delegate to gameManager
-    private static List<Instance> iQueue = new ArrayList<>(); // Buffer for new instances
-    static List<Icon> productive = new ArrayList<>();
-    static List<Icon> offensive = new ArrayList<>();
-    private static HashMap<Class<?>, Icon> iconByClass = new HashMap<>();
-    public static int power; // Delegate to gameManager
-    public static int kromer; // Delegate to gameManager
+    private transient Autosaver autosaver; // background autosave of live matches
+    private transient RewindBuffer rewindBuffer; // last seconds of the live match, for scrubbing back
+    boolean rewinding = false; // simulation stopped, view scrubbing through the rewind history
 
     private int timer = 0; // this will keeps on going each update, used for various purposes
 
@@ -68,118 +72,23 @@ public class Gamma extends JPanel implements ActionListener, MouseListener, Mous
     public boolean buildMode = false;
     boolean repairMode = false;
     boolean sellMode = false;
-    public static boolean getConstructor = false;
     Icon iconToBuild = null;
     Class<?> buildingToBuild = null;
-    ArrayList<Point> turretOffsets = new ArrayList<>();
-    ArrayList<Double> turretRanges = new ArrayList<>();
     int previewWidth = 0;
     int previewHeight = 0;
-    boolean proOnCons = false;
-    boolean offOnCons = false;
     ArrayList<Point> buildable = new ArrayList<>();
     ArrayList<Point> unbuildable = new ArrayList<>();
-
-    public static int wave = 0;
-
-    // Initialize building list from ConfigManager
-    void init() {
-        ConfigManager config = gameManager.getConfigManager();
-
-        // Define the building load order for UI display
-        String[] buildingOrder = {
-                "Headquarter", "PowerPlant", "OilRig", "RadarDish", "HeavyOrdnanceCenter",
-                "AutoCannon", "LaserTower", "MissileLauncher"
-        };
-
-        // Load buildings in defined order to ensure consistent UI display
-        for (String buildingName : buildingOrder) {
-            BuildingStats stats = config.getAllBuildingStats().get(buildingName);
-            if (stats != null) {
-                Icon icon = new Icon(stats);
-
-                if ("productive".equals(stats.buildingType)) {
-                    productive.add(icon);
-                } else if ("offensive".equals(stats.buildingType)) {
-                    offensive.add(icon);
-                }
-
-                iconByClass.putIfAbsent(stats.buildingClass, icon);
-            }
-        }
-
-        // Add any buildings not in the predefined order (for mod support)
-        for (BuildingStats stats : config.getAllBuildingStats().values()) {
-            if (iconByClass.containsKey(stats.buildingClass)) {
-                continue; // Already added
-            }
-
-            Icon icon = new Icon(stats);
-
-            if ("productive".equals(stats.buildingType)) {
-                productive.add(icon);
-            } else if ("offensive".equals(stats.buildingType)) {
-                offensive.add(icon);
-            }
-
-            iconByClass.putIfAbsent(stats.buildingClass, icon);
-        }
-    }
-
-    class Icon {
-        // Reference to config data
-        BuildingStats stats;
-
-        // Construction state only - all other data comes from BuildingStats
-        boolean building = false;
-        double constructionTimer = 0.0;
-        boolean ready = false;
-
-        // Constructor takes BuildingStats from config
-        Icon(BuildingStats stats) {
-            this.stats = stats;
-        }
-
-        void construct() {
-            building = true;
-            constructionTimer = 0.0;
-            ready = false;
-
-            // Set the appropriate category as under construction
-            if ("productive".equals(stats.buildingType)) {
-                proOnCons = true;
-            } else if ("offensive".equals(stats.buildingType)) {
-                offOnCons = true;
-            }
-        }
-
-        void update(float deltaTime) {
-            if (power < 0)
-                deltaTime = deltaTime / 2;
-            if (building && !ready) {
-                constructionTimer += deltaTime;
-                if (constructionTimer >= stats.buildTime) {
-                    ready = true;
-                    building = false;
-                    // DON'T clear the construction flag here - the icon is still "ready" and
-                    // blocking other constructions
-                    // The flag will be cleared when the icon is either:
-                    // 1. Placed in the world (ready becomes false), or
-                    // 2. Refunded via right-click (both building and ready become false)
-                }
-            }
-        }
-    }
+    int buildableVersion = 0; // bumped by refresh(), the build overlay redraws when it changes
 
     public Gamma() {
         gameInstance = this; // Set static reference
-        if (gameManager == null)
-            gameManager = new GameManager(); // Initialize once
-        if (gameLoop == null)
-            gameLoop = new GameLoop(gameManager); // Initialize once
+        gameManager = new GameManager();
+        gameLoop = new GameLoop(gameManager);
         inputManager = new InputManager(this); // REFACTORED: Initialize input manager
         renderSystem = new RenderSystem(this); // REFACTORED: Initialize render system
         buildingManager = new BuildingManager(this); // REFACTORED: Initialize building manager
+        autosaver = new Autosaver(gameManager, Paths.get(SAVE_DIR));
+        rewindBuffer = new RewindBuffer(gameManager, gameLoop);
 
         // Load all configuration from JSON files
         gameManager.getConfigManager().loadConfigs();
@@ -191,12 +100,9 @@ public class Gamma extends JPanel implements ActionListener, MouseListener, Mous
         requestFocusInWindow();
 
         // let it all begins
-        Instances = gameManager.getInstances();
-        power = gameManager.getPower();
-        kromer = gameManager.getKromer();
         gameRunning = false;
-        fastForward = false;
-        lastUpdateTime = System.currentTimeMillis();
+        speedLevel = 0;
+        gameLoop.reset();
 
         // create a timer that'll update 60 times per second (60 FPS)
         gameTimer = new Timer(FRAME_TIME, this);
@@ -204,7 +110,12 @@ public class Gamma extends JPanel implements ActionListener, MouseListener, Mous
         addKeyListener(this);
         addMouseListener(this);
         addMouseMotionListener(this);
-        init();
+        gameManager.initIcons(); // build menu entries from the loaded configs
+        gameManager.setMapChangedListener(() -> {
+            if (buildMode) {
+                refresh();
+            }
+        });
         Utilities.setCustomCursor(this, "normal_cursor", -16, -16);
         // Start timer immediately so menus render even when the game isn't running
         gameTimer.start();
@@ -214,8 +125,46 @@ public class Gamma extends JPanel implements ActionListener, MouseListener, Mous
         return gameInstance;
     }
 
-    public HashMap<Class<?>, Icon> getIconByClass() {
-        return iconByClass;
+    public GameManager getGameManager() {
+        return gameManager;
+    }
+
+    /**
+     * Watch a recorded match: same seed, map and mode, commands fed back at
+     * their ticks, running at turbo speed
+     */
+    public void startReplay(CommandLog replay) {
+        selectedMap = replay.getMap();
+        selectedMode = replay.getMode();
+        gameManager.setSeed(replay.getSeed());
+        gameManager.startMatch(selectedMap, selectedMode);
+        gameManager.setRewind(null); // replays are simply played again
+        gameLoop.setReplay(replay);
+
+        speedLevel = SPEED_LEVELS.length - 1; // turbo
+        gameRunning = true;
+        currentState = GameState.IN_GAME;
+        gameLoop.reset();
+    }
+
+    public GameLoop getGameLoop() {
+        return gameLoop;
+    }
+
+    // Whether a recorded match is playing back; live commands are ignored meanwhile
+    boolean isReplaying() {
+        return gameLoop.getReplay() != null;
+    }
+
+    // Advance to the next speed level, wrapping back to 1x after turbo
+    void cycleSpeed() {
+        speedLevel = (speedLevel + 1) % SPEED_LEVELS.length;
+    }
+
+    // Button label for the current speed level
+    String getSpeedLabel() {
+        int multiplier = SPEED_LEVELS[speedLevel];
+        return multiplier == GameLoop.TURBO ? "Speed: TURBO" : "Speed: " + multiplier + "x";
     }
 
     public BuildingManager getBuildingManager() {
@@ -223,49 +172,133 @@ public class Gamma extends JPanel implements ActionListener, MouseListener, Mous
     }
 
     public void startGame() {
-        // Clear previous game state
-        Instances.clear();
-        iQueue.clear();
-        Location.path.clear();
-        Location.occupancy.clear();
-        Location.buildingOccupancy.clear();
-        Location.adjacency.clear();
-
-        // Map selection (extend when new maps are added)
-        if ("plain".equalsIgnoreCase(selectedMap)) {
-            new Plain();
-        } else if ("outer space".equalsIgnoreCase(selectedMap)) {
-            new OuterSpace();
-        } else new Plain(); // fallback
-
-        // Mode configuration - set Kromer based on selected mode
-        gameManager.initializeKromerForMode(selectedMode);
-        kromer = gameManager.getKromer();
-        power = gameManager.getPower();
-
-        gameManager.setWave(0);
-        wave = gameManager.getWave();
-        fastForward = false;
+        // Clear previous game state and set up the selected map and mode
+        gameManager.setSeed(System.nanoTime());
+        gameManager.startMatch(selectedMap, selectedMode);
+        gameManager.startRecording(Paths.get(REPLAY_DIR, "replay-" + System.currentTimeMillis() + ".bcr"));
+        autosaver.restart();
+        rewindBuffer.clear();
+        gameManager.setRewind(rewindBuffer);
+
+        speedLevel = 0;
+        gameRunning = true;
+        currentState = GameState.IN_GAME;
+        gameLoop.reset();
+    }
+
+    // Save the running match to the quicksave slot
+    void quickSave() {
+        if (currentState != GameState.IN_GAME) {
+            return;
+        }
+        if (rewinding) {
+            // The instances show the scrubbed tick, everything else the newest one
+            error("Leave rewind to save");
+            return;
+        }
+        try {
+            gameManager.saveSnapshot(Paths.get(QUICKSAVE));
+            error("Game saved");
+        } catch (IOException e) {
+            error("Save failed: " + e.getMessage());
+        }
+    }
+
+    // Continue from the latest save, quicksave or autosave (in game or from the main menu);
+    // if it cannot be loaded, from the next older one
+    void quickLoad() {
+        List<Path> saves = Autosaver.latestSaves(Paths.get(SAVE_DIR), Paths.get(QUICKSAVE));
+        if (saves.isEmpty()) {
+            error("No save yet");
+            return;
+        }
+        buildingManager.clearAllModes();
+        iconToBuild = null;
+        buildingToBuild = null;
+        gameLoop.setReplay(null);
+        rewinding = false;
+        rewindBuffer.clear();
+        gameManager.setRewind(rewindBuffer);
+        IOException failure = null;
+        for (Path save : saves) {
+            try {
+                gameManager.loadSnapshot(save); // starts from an empty match, also after a failed attempt
+                failure = null;
+                break;
+            } catch (IOException e) {
+                System.err.println("[Gamma] Could not load " + save + ": " + e.getMessage());
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            goToMainMenu(); // the match is half loaded, drop it
+            error("Load failed: " + failure.getMessage());
+            return;
+        }
+        selectedMap = gameManager.getMapName();
+        selectedMode = gameManager.getMode();
+        speedLevel = 0;
         gameRunning = true;
         currentState = GameState.IN_GAME;
-        WaveManager.currentCycle = 1; // Reset cycle when starting new game
-        lastUpdateTime = System.currentTimeMillis();
+        gameLoop.reset();
+        autosaver.restart();
+    }
+
+    // Enter rewind (stop the match and scrub back from the newest tick) or leave it unchanged
+    void toggleRewind() {
+        if (currentState != GameState.IN_GAME) {
+            return;
+        }
+        if (rewinding) {
+            rewindBuffer.cancel();
+            rewinding = false;
+            gameRunning = true;
+            gameLoop.reset();
+        } else if (gameManager.getRewind() != null && rewindBuffer.beginScrub()) {
+            buildingManager.clearAllModes();
+            rewinding = true;
+            gameRunning = false;
+        }
+    }
+
+    // Scrub the rewind view by a number of ticks (negative = back)
+    void rewindStep(int ticks) {
+        if (rewinding) {
+            rewindBuffer.step(ticks);
+        }
+    }
+
+    // Continue the match from the tick on screen
+    void resumeFromRewind() {
+        if (!rewinding) {
+            return;
+        }
+        try {
+            if (rewindBuffer.resume()) {
+                error("Resumed from the past");
+            }
+        } catch (RuntimeException e) {
+            rewinding = false; // the history is gone, nothing to step back through
+            goToMainMenu(); // the match is half restored, drop it
+            error("Rewind failed: " + e.getMessage());
+            return;
+        }
+        rewinding = false;
+        gameRunning = true;
+        gameLoop.reset();
+    }
+
+    // Rewind readout: how far back the view is
+    String getRewindLabel() {
+        long behind = rewindBuffer.getLastTick() - rewindBuffer.getViewTick();
+        return String.format("REWIND -%.2fs", behind * GameLoop.FIXED_STEP);
     }
 
     // Return to main menu and reset runtime state
     public void goToMainMenu() {
         // Stop gameplay updates
         gameRunning = false;
-        fastForward = false;
-
-        // Clear world state
-        if (Instances != null)
-            Instances.clear();
-        iQueue.clear();
-        Location.occupancy.clear();
-        Location.buildingOccupancy.clear();
-        Location.adjacency.clear();
-        Location.path.clear();
+        speedLevel = 0;
 
         // Reset UI/game flags
         buildingManager.clearAllModes(); // This clears buildMode, repairMode, sellMode, and preview data
@@ -273,28 +306,16 @@ public class Gamma extends JPanel implements ActionListener, MouseListener, Mous
         buildingToBuild = null;
         tabSelected = "productive";
         err = "";
-        proOnCons = false;
-        offOnCons = false;
 
-        // Reset construction icons state
-        for (Icon icon : productive) {
-            icon.building = false;
-            icon.ready = false;
-            icon.constructionTimer = 0.0;
+        // Save the replay, then reset map, instances, economy, waves and construction icons
+        if (rewinding) {
+            rewindBuffer.cancel(); // back to the newest tick so the replay matches the match
+            rewinding = false;
         }
-        for (Icon icon : offensive) {
-            icon.building = false;
-            icon.ready = false;
-            icon.constructionTimer = 0.0;
-        }
-
-        // Reset power/waves in both Gamma and GameManager
-        power = gameManager.getPower();
-        wave = gameManager.getWave();
+        gameManager.stopRecording();
+        gameManager.setRewind(null);
+        gameLoop.setReplay(null);
         gameManager.fullReset();
-        WaveManager.waveActive = false;
-        WaveManager.waveCompleted = false;
-        WaveManager.currentCycle = 1; // Reset cycle when returning to main menu
 
         // Reset cursor
         Utilities.setCustomCursor(this, "normal_cursor", -16, -16);
@@ -302,154 +323,50 @@ public class Gamma extends JPanel implements ActionListener, MouseListener, Mous
 
         // Back to menu
         currentState = GameState.MAIN_MENU;
-        lastUpdateTime = System.currentTimeMillis();
-    }
-
-    // Method to add instances to the game, return success or failure
-    public static boolean add(Instance instance, boolean restricted) {
-        if (instance instanceof Building) {
-            Building building = (Building) instance;
-            if (canPlace(building.x, building.y, building.width, building.height, restricted)) {
-                Instances.add(instance);
-                for (int x = building.x; x < building.x + building.width; x++) {
-                    for (int y = building.y; y < building.y + building.height; y++) {
-                        // Add the building's occupied cell to buildingOccupancy
-                        Location.buildingOccupancy.put(new Point(x, y), building);
-                        // Get the buildRange from the Icon associated with this building's class
-                        double buildRange = 1.0;
-                        for (Icon ic : productive) {
-                            if (ic.stats.buildingClass == building.getClass()) {
-                                buildRange = ic.stats.buildRange;
-                                break;
-                            }
-                        }
-                        for (Icon ic : offensive) {
-                            if (ic.stats.buildingClass == building.getClass()) {
-                                buildRange = ic.stats.buildRange;
-                                break;
-                            }
-                        }
-                        int range = (int) Math.round(buildRange);
-                        for (int dx = -range; dx <= range; dx++) {
-                            for (int dy = -range; dy <= range; dy++) {
-                                int nx = x + dx;
-                                int ny = y + dy;
-                                // Check if within circle radius
-                                if (dx * dx + dy * dy <= range * range) {
-                                    // Check bounds
-                                    if (nx >= 0 && ny >= 0 && nx < Location.cols && ny < Location.rows) {
-                                        Point adjPoint = new Point(nx, ny);
-                                        if (!Location.adjacency.contains(adjPoint)) {
-                                            Location.adjacency.add(adjPoint);
-                                        }
-                                    }
-                                }
-                            }
-                        }
-                    }
-                }
-            } else
-                return false; // failed to add building
-            if (gameInstance != null && gameInstance.buildMode) {
-                gameInstance.refresh();
-            }
-            return true;
-        } else {
-            iQueue.add(instance);
-            return true;
-        }
-    }
-
-    public static void add(Instance instance) {
-        add(instance, false);
-    }
-
-    // method to check if a building can be placed at the given position
-    private static boolean canPlace(int x, int y, int width, int height, boolean restricted) {
-        // Check if building would go outside map bounds
-        if (x < 0 || y < 0 || x + width > Location.cols || y + height > Location.rows) {
-            return false;
-        }
-
-        for (int bx = x; bx < x + width; bx++) {
-            for (int by = y; by < y + height; by++) {
-                if (restricted && !Location.adjacency.contains(new Point(bx, by))) {
-                    return false;
-                }
-                for (Point occupied : Location.occupancy) {
-                    if (occupied.x == bx && occupied.y == by) {
-                        return false;
-                    }
-                }
-                for (Point occupied : Location.buildingOccupancy.keySet()) {
-                    if (occupied.x == bx && occupied.y == by) {
-                        return false;
-                    }
-                }
-            }
-        }
-        return true;
-    }
-
-    public static List<Instance> getInstances() {
-        return new ArrayList<>(Instances);
+        gameLoop.reset();
     }
 
     // This is called every 16.67ms (60 times per second)
     @Override
     public void actionPerformed(ActionEvent e) {
-        // Use GameLoop to calculate delta time and update game
-        float deltaTime = gameLoop.calculateDeltaTime(fastForward, gameManager.getWave());
+        // Sample real time every frame, also while paused or in menus
+        float realDelta = gameLoop.sampleRealDelta();
         gameLoop.tick();
         timer = gameLoop.getTimer();
 
         if (gameRunning) {
-            // Update Icon construction timers
-            for (Icon icon : productive) {
-                icon.update(deltaTime);
-            }
-            for (Icon icon : offensive) {
-                icon.update(deltaTime);
+            // Step the simulation (construction, instances, wave, etc.) in fixed ticks,
+            // as many as the speed level asks for; only the latest state gets painted
+            gameLoop.advance(realDelta, SPEED_LEVELS[speedLevel], gameManager.getWave());
+
+            // A replay stops where the recorded match was saved, its last tick stays on screen
+            if (gameLoop.isReplayOver()) {
+                gameRunning = false;
+                error("Replay finished");
             }
 
-            // Update game objects (instances, wave, etc.)
-            gameLoop.updateGameObjects(deltaTime, Instances, iQueue);
+            // Between ticks: capture an autosave if due, written in the background
+            if (!isReplaying()) {
+                autosaver.update();
+            }
 
             // Update build mode placement
-            if (buildMode && m1 && buildingToBuild != null) {
+            if (buildMode && m1 && buildingToBuild != null && !isReplaying()) {
                 int cellX = mx / Location.cellSize;
                 int cellY = my / Location.cellSize;
-                try {
-                    Instance newBuilding = (Instance) buildingToBuild.getDeclaredConstructor(int.class, int.class)
-                            .newInstance(cellX, cellY);
-                    if (add(newBuilding, true)) {
-                        iconToBuild.ready = false;
-                        buildMode = false; // exit build mode after placing
-                        buildingToBuild = null; // clear the building to build
-                        turretOffsets.clear();
-                        turretRanges.clear();
-                        previewWidth = 0;
-                        previewHeight = 0;
-                        buildable.clear();
-                        unbuildable.clear();
-                        if ("productive".equals(iconToBuild.stats.buildingType)) {
-                            proOnCons = false;
-                        } else if ("offensive".equals(iconToBuild.stats.buildingType)) {
-                            offOnCons = false;
-                        }
-                    } else {
-                        getConstructor = true;
-                        newBuilding.destroy();
-                        getConstructor = false;
-                    }
-                } catch (Exception ex) {
-                    // Failed to create building instance
+                if (gameManager.placeBuilding(iconToBuild, cellX, cellY)) {
+                    buildMode = false; // exit build mode after placing
+                    buildingToBuild = null; // clear the building to build
+                    previewWidth = 0;
+                    previewHeight = 0;
+                    buildable.clear();
+                    unbuildable.clear();
                 }
                 m1 = false; // consume the click
             }
 
             // Update sell/repair mode interactions via BuildingManager
-            if ((buildingManager.isSellMode() || buildingManager.isRepairMode()) && m1) {
+            if ((buildingManager.isSellMode() || buildingManager.isRepairMode()) && m1 && !isReplaying()) {
                 int cellX = Math.max(0, Math.min(Location.cols - 1, mx / Location.cellSize));
                 int cellY = Math.max(0, Math.min(Location.rows - 1, my / Location.cellSize));
 
@@ -492,7 +409,9 @@ public class Gamma extends JPanel implements ActionListener, MouseListener, Mous
         renderSystem.render(g2d);
     }
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
+        // Optional: --replay <file> to watch a recorded match
+        CommandLog replay = args.length >= 2 && args[0].equals("--replay") ? CommandLog.load(Paths.get(args[1])) : null;
         SwingUtilities.invokeLater(() -> {
             JFrame frame = new JFrame("Battle Control");
             frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
@@ -503,7 +422,10 @@ public class Gamma extends JPanel implements ActionListener, MouseListener, Mous
             frame.setResizable(false);
             frame.setLocationRelativeTo(null); // Center on screen
             frame.setVisible(true);
-            // Start from menu; do not auto-start the game
+            if (replay != null) {
+                game.startReplay(replay);
+            }
+            // Otherwise start from menu; do not auto-start the game
         });
     }
 
@@ -515,82 +437,21 @@ public class Gamma extends JPanel implements ActionListener, MouseListener, Mous
         errFadeStartTime = 0; // reset fade timer
     }
 
-    /**
-     * Sell a building and return the refund amount to the player
-     * 
-     * @param building the building to sell
-     * @return true if the sale was successful
-     */
-    public boolean sellBuilding(Building building) {
-        if (building instanceof Headquarter) {
-            return false; // Cannot sell HQ
-        }
-
-        Icon icon = iconByClass.get(building.getClass());
-        if (icon != null) {
-            int refund = (int) (icon.stats.cost * 0.5f * (building.health / (float) building.maxHealth));
-            gameManager.addKromer(refund);
-            building.destroy();
-            return true;
-        }
-        return false;
-    }
-
     // this method will be used globally to update buildable cells in build mode
     public void refresh() {
         buildable.clear();
         unbuildable.clear();
-        HashSet<Point> occupancySet = new HashSet<>(Location.occupancy);
+        buildableVersion++;
+        MapManager map = gameManager.getMap();
+        PlacementMap placement = map.getPlacement();
 
-        for (Point p : Location.adjacency) {
-            if (occupancySet.contains(p) || Location.buildingOccupancy.containsKey(p)) {
+        for (Point p : map.getAdjacency()) {
+            if (placement.isBlocked(p.x, p.y)) {
                 unbuildable.add(p);
             } else {
                 buildable.add(p);
             }
         }
-
-        Location.adjacency.clear();
-
-        // Rebuild adjacency from all remaining buildings
-        for (Building building : Location.buildingOccupancy.values()) {
-            // Get the buildRange from the Icon associated with this building's class
-            double buildRange = 1.0;
-            for (Icon icon : productive) {
-                if (icon.stats.buildingClass == building.getClass()) {
-                    buildRange = icon.stats.buildRange;
-                    break;
-                }
-            }
-            for (Icon icon : offensive) {
-                if (icon.stats.buildingClass == building.getClass()) {
-                    buildRange = icon.stats.buildRange;
-                    break;
-                }
-            }
-
-            int range = (int) Math.round(buildRange);
-
-            // Add adjacency for each cell occupied by this building
-            for (Point occupied : building.occupiedCells) {
-                for (int dx = -range; dx <= range; dx++) {
-                    for (int dy = -range; dy <= range; dy++) {
-                        int nx = occupied.x + dx;
-                        int ny = occupied.y + dy;
-                        // Check if within circle radius
-                        if (dx * dx + dy * dy <= range * range) {
-                            // Check bounds
-                            if (nx >= 0 && ny >= 0 && nx < Location.cols && ny < Location.rows) {
-                                Point adjPoint = new Point(nx, ny);
-                                if (!Location.adjacency.contains(adjPoint)) {
-                                    Location.adjacency.add(adjPoint);
-                                }
-                            }
-                        }
-                    }
-                }
-            }
-        }
     }
 
     @Override
@@ -703,125 +564,15 @@ class Hitbox {
     }
 }
 
+// Grid dimensions shared by every match; per-match map state lives in MapManager
 abstract class Location {
-    public static final int cellSize = 40; // size of each grid cell in pixels
-    public static final int cols = 39; // number of columns
-    public static final int rows = 27; // number of rows
-    public static ArrayList<Point> occupancy = new ArrayList<>(); // occupied cells for path and obstacles
-    public static HashMap<Point, Building> buildingOccupancy = new HashMap<>(); // occupied cells for buildings
-    public static ArrayList<Point> adjacency = new ArrayList<>(); // list of cells that a building provide adjacency
-                                                                  // for, or in other word, buildable cells
-    public static ArrayList<Point> path = new ArrayList<>(); // path for enemies to follow
-
-    public static Color bg; // background color
-    public static Color pc; // path color
-
-    public static Point start; // starting point for enemies
-
-    public Location() {
-    }
-
-    void mapPath(int x1, int y1, int x2, int y2) {
-        // Only create path if line is horizontal or vertical
-        if (x1 != x2 && y1 != y2) {
-            return; // Not horizontal or vertical, do nothing
-        }
-
-        // add points to path
-        if (x1 == x2) {
-            // Vertical line
-            if (y1 > y2) {
-                for (int y = y1; y >= y2; y--) {
-                    if (!pathExists(x1, y)) {
-                        path.add(new Point(x1, y));
-                        occupancy.add(new Point(x1, y));
-                    }
-                }
-            } else {
-                for (int y = y1; y <= y2; y++) {
-                    if (!pathExists(x1, y)) {
-                        path.add(new Point(x1, y));
-                        occupancy.add(new Point(x1, y));
-                    }
-                }
-            }
-        } else {
-            // Horizontal line
-            if (x1 > x2) {
-                for (int x = x1; x >= x2; x--) {
-                    if (!pathExists(x, y1)) {
-                        path.add(new Point(x, y1));
-                        occupancy.add(new Point(x, y1));
-                    }
-                }
-            } else {
-                for (int x = x1; x <= x2; x++) {
-                    if (!pathExists(x, y1)) {
-                        path.add(new Point(x, y1));
-                        occupancy.add(new Point(x, y1));
-                    }
-                }
-            }
-        }
-    }
-
-    boolean pathExists(int x, int y) {
-        for (Point p : path) {
-            if (p.x == x && p.y == y) {
-                return true;
-            }
-        }
-        return false;
-    }
-}
-
-class Plain extends Location {
-    public Plain() {
-        bg = new Color(34, 139, 34);
-        pc = new Color(50, 175, 50);
-
-        start = new Point(43, 13);
-        mapPath(38, 13, 32, 13);
-        mapPath(32, 13, 32, 6);
-        mapPath(32, 6, 14, 6);
-        mapPath(14, 6, 14, 21);
-        mapPath(14, 21, 19, 21);
-        mapPath(19, 21, 19, 8);
-        mapPath(19, 8, 25, 8);
-        mapPath(25, 8, 25, 24);
-        mapPath(25, 24, 8, 24);
-        mapPath(8, 24, 8, 3);
-        mapPath(8, 3, 5, 3);
-
-        Gamma.add(new Empty());
-
-        Gamma.add(new Headquarter(1, 1));
-    }
-}
-
-class OuterSpace extends Location {
-    public OuterSpace() {
-        bg = new Color(0, 0, 0);
-        pc = new Color(255, 255, 255);
-
-        start = new Point(-5, 25);
-        mapPath(0, 25, 37, 25);
-        mapPath(37, 25, 37, 1);
-        mapPath(37, 1, 1, 1);
-        mapPath(1, 1, 1, 20);
-        mapPath(1, 20, 34, 20);
-        mapPath(34, 20, 34, 4);
-        mapPath(34, 4, 11, 4);
-        mapPath(11, 4, 11, 11);
-        mapPath(11, 11, 19, 11);
-
-        Gamma.add(new Empty());
-
-        Gamma.add(new Headquarter(20, 10));
-    }
+    public static final int cellSize = MapManager.CELL_SIZE; // size of each grid cell in pixels
+    public static final int cols = MapManager.COLS; // number of columns
+    public static final int rows = MapManager.ROWS; // number of rows
 }
 
 abstract class Instance implements Elements.Renderable {
+    final GameManager game; // the match this instance lives in
     int x, y; // in cells
     double exactX, exactY;
     int health;
@@ -836,12 +587,16 @@ abstract class Instance implements Elements.Renderable {
     double timer = 0; // general purpose timer
     double trueTimer = 0; // general purpose timer that isn't affected by time dilation
     double healthMult = 1, damageMult = 1, speedMult = 1, rangeMult = 1, rofMult = 1;
+    int handle = InstanceArena.NONE; // stable id while in the match, see InstanceArena
+    int updateOrder = -1; // position in the current tick's update loop, keys the commands this instance makes
+    int commandSeq = 0; // commands made so far this tick
 
     BufferedImage image;
     int imgX = Location.cellSize / 2, imgY = Location.cellSize / 2; // image offset
     int scaleX = 1, scaleY = 1; // image scale
 
-    public Instance(int x, int y, int health) {
+    public Instance(GameManager game, int x, int y, int health) {
+        this.game = game;
         this.x = x;
         this.y = y;
         exactX = x * Location.cellSize + Location.cellSize / 2.0;
@@ -850,7 +605,8 @@ abstract class Instance implements Elements.Renderable {
         this.maxHealth = (int) (health * healthMult);
     }
 
-    public Instance(double x, double y) { // for projectiles
+    public Instance(GameManager game, double x, double y) { // for projectiles
+        this.game = game;
         this.exactX = x;
         this.exactY = y;
     }
@@ -915,13 +671,74 @@ abstract class Instance implements Elements.Renderable {
         weapon.projectileType = stats.projectileType != null ? stats.projectileType : "bullet";
         return weapon;
     }
+
+    /**
+     * Write the simulation state to a snapshot (alive, position, health, timers,
+     * multipliers, turrets and weapons). Subclasses append their own fields.
+     */
+    void save(MatchSnapshot out) {
+        ByteBuffer buf = out.buffer();
+        out.putBoolean(alive);
+        buf.putInt(x).putInt(y).putDouble(exactX).putDouble(exactY).putDouble(facing);
+        buf.putInt(health).putInt(maxHealth);
+        buf.putDouble(timer).putDouble(trueTimer);
+        buf.putDouble(healthMult).putDouble(damageMult).putDouble(speedMult).putDouble(rangeMult).putDouble(rofMult);
+        buf.putInt(turrets.size());
+        for (Turret turret : turrets) {
+            turret.save(out);
+        }
+        buf.putInt(weapons.size());
+        for (Weapon weapon : weapons) {
+            weapon.save(out);
+        }
+    }
+
+    /**
+     * Read back what save() wrote, over an instance freshly built by its constructor
+     */
+    void load(MatchSnapshot in) {
+        ByteBuffer buf = in.buffer();
+        alive = in.getBoolean();
+        x = buf.getInt();
+        y = buf.getInt();
+        exactX = buf.getDouble();
+        exactY = buf.getDouble();
+        facing = buf.getDouble();
+        health = buf.getInt();
+        maxHealth = buf.getInt();
+        timer = buf.getDouble();
+        trueTimer = buf.getDouble();
+        healthMult = buf.getDouble();
+        damageMult = buf.getDouble();
+        speedMult = buf.getDouble();
+        rangeMult = buf.getDouble();
+        rofMult = buf.getDouble();
+        // Turrets and weapons come from the configs, the snapshot must match them
+        int turretCount = buf.getInt();
+        if (turretCount == 0 && !alive) {
+            turrets.clear(); // destroy() dropped them (sold or killed shooter)
+        }
+        if (turretCount != turrets.size()) {
+            throw new IllegalStateException(getClass().getSimpleName() + " turrets differ from the configs");
+        }
+        for (Turret turret : turrets) {
+            turret.load(in);
+        }
+        if (buf.getInt() != weapons.size()) {
+            throw new IllegalStateException(getClass().getSimpleName() + " weapons differ from the configs");
+        }
+        for (Weapon weapon : weapons) {
+            weapon.load(in);
+        }
+        updateHitboxes();
+    }
 }
 
 class Empty extends Instance {
     static boolean hasPlayedAnimation = false;
 
-    public Empty() {
-        super(0, 0, Integer.MAX_VALUE);
+    public Empty(GameManager game) {
+        super(game, 0, 0, Integer.MAX_VALUE);
         zIndex = 0; // Default Z-index
     }
 
@@ -947,22 +764,26 @@ class Empty extends Instance {
 
 abstract class Building extends Instance {
     int width, height; // dimensions in grid cells
-    int power = 0; // power consumption or generation
+    int power = 0; // power consumption or generation, counted by the Economy while placed
+    static final double REPAIR_INTERVAL = 0.2; // seconds per repaired health point (1 kromer each)
+    static final float NANO_TIME = 0.7f; // seconds of the placement flash
+
     boolean repairing = false; // is currently repairing
-    double repairTimer = 0; // health per second
-    double kromerTimer = 0; // kromer per second
+    final TimerWheel.Timer repair = new TimerWheel.Timer(this::repairTick); // next repaired point
     ArrayList<Point> occupiedCells = new ArrayList<>(); // locally store cells occupied by this building
-    private float nanoTimer = 0.7f; // counts down after build
+    int typeIndex = -1; // BuildingStats.typeIndex, indexes the enemies' target weights (-1 = not in config)
+    private long placedAt; // wheel time of construction, the placement flash fades from there
 
-    public Building(int x, int y, int health, int width, int height, int power) {
+    public Building(GameManager game, int x, int y, int health, int width, int height, int power) {
         int calHealth = health;
-        if (Gamma.selectedMode.equals("paper armor")) {
+        if (game.getMode().equals("paper armor")) {
             calHealth = health / 2;
         }
-        super(x, y, calHealth);
+        super(game, x, y, calHealth);
         this.width = width;
         this.height = height;
         setupBuildingLayout(width, height, power);
+        placedAt = game.getTimers().now();
         loadFromConfig();
     }
 
@@ -980,48 +801,43 @@ abstract class Building extends Instance {
                 occupiedCells.add(new Point(x + i, y + j));
             }
         }
-        if (Gamma.getConstructor != true) {
-            GameManager.getInstance().addPower(power);
-            Gamma.power = GameManager.getInstance().getPower();
-        }
         updateHitboxes();
     }
 
     void update(float deltaTime) {
-        if (GameManager.getInstance().getWave() > 0) {
-            kromerTimer += deltaTime;
-            if (this instanceof Headquarter) {
-                if (kromerTimer >= 10.0) {
-                    GameManager.getInstance().addKromer(10);
-                    Gamma.kromer = GameManager.getInstance().getKromer();
-                    kromerTimer = 0;
-                }
-            } else if (this instanceof OilRig) {
-                if (kromerTimer >= 7.0) {
-                    GameManager.getInstance().addKromer(15);
-                    Gamma.kromer = GameManager.getInstance().getKromer();
-                    kromerTimer = 0;
-                }
-            }
-        }
+        // repairs run on the match's timer wheel (see setRepairing), income is paid by the Economy
+    }
+
+    /**
+     * Switch repairing on or off; on, it heals a point every REPAIR_INTERVAL for 1 kromer each
+     */
+    void setRepairing(boolean repairing) {
+        this.repairing = repairing;
         if (repairing) {
+            game.getTimers().schedule(repair, REPAIR_INTERVAL);
+        } else {
+            game.getTimers().cancel(repair);
+        }
+    }
+
+    private void repairTick() {
+        if (health >= maxHealth) {
+            health = maxHealth;
+            repairing = false;
+            return;
+        }
+        Economy economy = game.getEconomy();
+        if (economy.getKromer() > 0) {
+            economy.spend(1);
+            health += 1;
             if (health >= maxHealth) {
-                health = maxHealth;
                 repairing = false;
-                repairTimer = 0;
                 return;
             }
-            repairTimer += deltaTime;
-            if (repairTimer >= 0.2 && GameManager.getInstance().getKromer() > 0) {
-                GameManager.getInstance().addKromer(-1);
-                Gamma.kromer = GameManager.getInstance().getKromer();
-                health += 1;
-                repairTimer = 0;
-            }
+            game.getTimers().schedule(repair, REPAIR_INTERVAL);
+        } else {
+            game.getTimers().schedule(repair, GameLoop.FIXED_STEP); // out of kromer, try again next tick
         }
-
-        if (nanoTimer > 0f)
-            nanoTimer = Math.max(0f, nanoTimer - deltaTime);
     }
 
     @Override
@@ -1036,8 +852,9 @@ abstract class Building extends Instance {
             g.drawImage(image, drawX, drawY, null);
         }
         // Placement flash overlay: start fully visible and fade to transparent
+        float nanoTimer = NANO_TIME - (float) game.getTimers().secondsSince(placedAt);
         if (nanoTimer > 0f) {
-            float t = Math.max(0f, nanoTimer / 0.7f);
+            float t = Math.max(0f, nanoTimer / NANO_TIME);
             float alpha = (float) Math.sqrt(t); // ease-out: slower at start, faster at end
             int rx = x * Location.cellSize;
             int ry = y * Location.cellSize;
@@ -1057,72 +874,71 @@ abstract class Building extends Instance {
 
     @Override
     public void destroy() {
-        if (!Gamma.getConstructor) {
-            for (Point occupied : occupiedCells) {
-                Location.buildingOccupancy.remove(occupied);
-            }
+        for (Point occupied : occupiedCells) {
+            game.getMap().removeBuildingCell(occupied);
         }
 
         if (this instanceof Headquarter) {
-            System.exit(404);
-            System.err.println("rip BOZO");
+            game.headquarterDestroyed();
         }
 
         turrets.clear();
-        GameManager.getInstance().addPower(-this.power);
-        Gamma.power = GameManager.getInstance().getPower();
+        game.buildingRemoved(this);
         alive = false;
+        game.getTimers().cancel(repair);
 
         // Cancel construction of any buildings that depend on this one as a
         // prerequisite
         String destroyedBuildingName = this.getClass().getSimpleName();
-        Gamma gamma = Gamma.getInstance();
-
-        // Check productive buildings
-        for (Gamma.Icon icon : Gamma.productive) {
-            if (icon.stats.prerequisites.contains(destroyedBuildingName) && (icon.building || icon.ready)) {
-                // Refund full cost (building under construction hasn't taken damage)
-                int refund = icon.stats.cost;
-                GameManager.getInstance().addKromer(refund);
+        cancelDependentConstruction(game.getProductiveIcons(), destroyedBuildingName);
+        cancelDependentConstruction(game.getOffensiveIcons(), destroyedBuildingName);
 
-                // Reset construction state
-                icon.building = false;
-                icon.ready = false;
-                icon.constructionTimer = 0.0;
-                gamma.proOnCons = false;
-            }
-        }
+        // Update adjacency and build mode cells
+        game.refreshAdjacency();
+    }
 
-        // Check offensive buildings
-        for (Gamma.Icon icon : Gamma.offensive) {
+    private void cancelDependentConstruction(List<Icon> icons, String destroyedBuildingName) {
+        for (Icon icon : icons) {
             if (icon.stats.prerequisites.contains(destroyedBuildingName) && (icon.building || icon.ready)) {
                 // Refund full cost (building under construction hasn't taken damage)
                 int refund = icon.stats.cost;
-                GameManager.getInstance().addKromer(refund);
+                game.getEconomy().earn(refund);
 
                 // Reset construction state
-                icon.building = false;
-                icon.ready = false;
-                icon.constructionTimer = 0.0;
-                gamma.offOnCons = false;
+                icon.reset();
+                game.setConstructing(icon.stats.buildingType, false);
             }
         }
-
-        // Update build mode cells
-        Gamma.getInstance().refresh();
     }
 
     public void onLowPower() {
 
     }
 
+    @Override
+    void save(MatchSnapshot out) {
+        super.save(out);
+        out.putBoolean(repairing);
+        out.putTimer(repair);
+        out.buffer().putLong(placedAt);
+    }
+
+    @Override
+    void load(MatchSnapshot in) {
+        super.load(in);
+        repairing = in.getBoolean();
+        in.getTimer(game.getTimers(), repair);
+        placedAt = in.buffer().getLong();
+    }
+
     /**
      * Load turrets and weapons from config.
      * Called automatically from Building constructor.
      */
     private void loadFromConfig() {
-        BuildingStats stats = GameManager.getInstance().getConfigManager().getAllBuildingStats()
-                .get(this.getClass().getSimpleName());
+        BuildingStats stats = game.getConfigManager().getBuildingStats(this.getClass().getSimpleName());
+        if (stats != null)
+            typeIndex = stats.typeIndex;
         if (stats == null || stats.turrets == null)
             return;
 
@@ -1147,8 +963,8 @@ abstract class Building extends Instance {
 // PRODUCTIVE BUILDINGS
 // ---------------------------------------------------------------------------------------------
 abstract class Productive extends Building { // declared only for type distinction
-    public Productive(int x, int y, int health, int width, int height, int power) {
-        super(x, y, health, width, height, power);
+    public Productive(GameManager game, int x, int y, int health, int width, int height, int power) {
+        super(game, x, y, health, width, height, power);
     }
 }
 // ---------------------------------------------------------------------------------------------
@@ -1157,8 +973,8 @@ class Headquarter extends Productive {
     static final int width = 4;
     static final int height = 4;
 
-    public Headquarter(int x, int y) {
-        super(x, y, 2000, width, height, 25);
+    public Headquarter(GameManager game, int x, int y) {
+        super(game, x, y, 2000, width, height, 25);
         zIndex = 0; // Buildings on bottom layer
     }
 }
@@ -1167,8 +983,8 @@ class PowerPlant extends Productive {
     static final int width = 2;
     static final int height = 2;
 
-    public PowerPlant(int x, int y) {
-        super(x, y, 150, width, height, 50);
+    public PowerPlant(GameManager game, int x, int y) {
+        super(game, x, y, 150, width, height, 50);
         zIndex = 0; // Buildings on bottom layer
     }
 }
@@ -1177,8 +993,8 @@ class OilRig extends Productive {
     static final int width = 3;
     static final int height = 2;
 
-    public OilRig(int x, int y) {
-        super(x, y, 250, width, height, -40);
+    public OilRig(GameManager game, int x, int y) {
+        super(game, x, y, 250, width, height, -40);
         zIndex = 0; // Buildings on bottom layer
     }
 }
@@ -1187,8 +1003,8 @@ class RadarDish extends Productive {
     static final int width = 2;
     static final int height = 2;
 
-    public RadarDish(int x, int y) {
-        super(x, y, 300, width, height, -25);
+    public RadarDish(GameManager game, int x, int y) {
+        super(game, x, y, 300, width, height, -25);
         zIndex = 0; // Buildings on bottom layer
     }
 }
@@ -1197,8 +1013,8 @@ class HeavyOrdnanceCenter extends Productive {
     static final int width = 3;
     static final int height = 3;
 
-    public HeavyOrdnanceCenter(int x, int y) {
-        super(x, y, 500, width, height, -50);
+    public HeavyOrdnanceCenter(GameManager game, int x, int y) {
+        super(game, x, y, 500, width, height, -50);
         zIndex = 0; // Buildings on bottom layer
     }
 }
@@ -1206,8 +1022,8 @@ class HeavyOrdnanceCenter extends Productive {
 // OFFENSIVE BUILDINGS
 // ---------------------------------------------------------------------------------------------
 abstract class Offensive extends Building { // declared only for type distinction
-    public Offensive(int x, int y, int health, int width, int height, int power) {
-        super(x, y, health, width, height, power);
+    public Offensive(GameManager game, int x, int y, int health, int width, int height, int power) {
+        super(game, x, y, health, width, height, power);
     }
 }
 // ---------------------------------------------------------------------------------------------
@@ -1216,8 +1032,8 @@ class AutoCannon extends Offensive {
     static final int width = 1;
     static final int height = 1;
 
-    public AutoCannon(int x, int y) {
-        super(x, y, 100, width, height, -10);
+    public AutoCannon(GameManager game, int x, int y) {
+        super(game, x, y, 100, width, height, -10);
         zIndex = 0; // Buildings on bottom layer
     }
 }
@@ -1226,8 +1042,8 @@ class Artillery extends Offensive {
     static final int width = 2;
     static final int height = 2;
 
-    public Artillery(int x, int y) {
-        super(x, y, 300, width, height, -25);
+    public Artillery(GameManager game, int x, int y) {
+        super(game, x, y, 300, width, height, -25);
         zIndex = 0; // Buildings on bottom layer
     }
 }
@@ -1249,20 +1065,20 @@ abstract class Enemy extends Instance {
 
     boolean rotating = false; // is currently rotating
 
-    HashMap<String, Integer> weight = new HashMap<>(); // store weights for target selection
+    int[] weights = new int[0]; // target weight per building type index, resolved by ConfigManager
 
-    public Enemy(int x, int y) {
-        super(x, y, 0); // health will be set by loadFromConfig()
-        if (Gamma.selectedMode.equals("blitzkrieg")) {
+    public Enemy(GameManager game, int x, int y) {
+        super(game, x, y, 0); // health will be set by loadFromConfig()
+        if (game.getMode().equals("blitzkrieg")) {
             speedMult *= 1.5;
         }
         // finds which path index it is at
-        for (int i = 0; i < Location.path.size(); i++) {
-            Point p = Location.path.get(i);
+        for (int i = 0; i < game.getMap().getPath().size(); i++) {
+            Point p = game.getMap().getPath().get(i);
             if (p.x == x && p.y == y) {
                 pathIndex = i;
-                if (pathIndex + 1 < Location.path.size()) {
-                    Point next = Location.path.get(pathIndex + 1);
+                if (pathIndex + 1 < game.getMap().getPath().size()) {
+                    Point next = game.getMap().getPath().get(pathIndex + 1);
                     double angle = Math.atan2(next.y - p.y, next.x - p.x);
                     facing = angle;
                     break;
@@ -1271,7 +1087,7 @@ abstract class Enemy extends Instance {
         }
         if (pathIndex == -1) {
             // face the first path point
-            Point next = Location.path.get(0);
+            Point next = game.getMap().getPath().get(0);
             double angle = Math.atan2(next.y - y, next.x - x);
             facing = angle;
         }
@@ -1282,17 +1098,16 @@ abstract class Enemy extends Instance {
     public void destroy() {
         alive = false;
         turrets.clear();
-        GameManager.getInstance().addKromer(kromerReward);
-        Gamma.kromer = GameManager.getInstance().getKromer();
+        game.getEconomy().earn(kromerReward);
     }
 
     @Override
     void update(float deltaTime) {
-        if (pathIndex >= Location.path.size() - 1) {
+        if (pathIndex >= game.getMap().getPath().size() - 1) {
             return;
         }
 
-        Point currentTarget = Location.path.get(pathIndex + 1);
+        Point currentTarget = game.getMap().getPath().get(pathIndex + 1);
         double targetX = currentTarget.x * Location.cellSize + Location.cellSize / 2.0;
         double targetY = currentTarget.y * Location.cellSize + Location.cellSize / 2.0;
 
@@ -1343,8 +1158,8 @@ abstract class Enemy extends Instance {
 
         if (distance <= moveDistance) {
 
-            if (pathIndex + 2 < Location.path.size()) {
-                Point nextTarget = Location.path.get(pathIndex + 2);
+            if (pathIndex + 2 < game.getMap().getPath().size()) {
+                Point nextTarget = game.getMap().getPath().get(pathIndex + 2);
 
                 double nextDx = nextTarget.x - currentTarget.x;
                 double nextDy = nextTarget.y - currentTarget.y;
@@ -1417,25 +1232,27 @@ abstract class Enemy extends Instance {
         }
     }
 
-    void weight(String name, int value) {
-        String key = name.toLowerCase();
-        if (!weight.containsKey(key)) {
-            weight.put(key, value);
-        }
+    @Override
+    void save(MatchSnapshot out) {
+        super.save(out);
+        out.buffer().putInt(pathIndex).putDouble(speed);
+        out.putBoolean(rotating);
+    }
+
+    @Override
+    void load(MatchSnapshot in) {
+        super.load(in);
+        pathIndex = in.buffer().getInt();
+        speed = in.buffer().getDouble();
+        rotating = in.getBoolean();
     }
 
     int getWeight(Building building) {
-        String key = building.getClass().getSimpleName();
-        // Try exact match first
-        if (weight.containsKey(key)) {
-            return weight.get(key);
-        }
-        // Try lowercase match as fallback
-        Integer lowerCaseValue = weight.get(key.toLowerCase());
-        if (lowerCaseValue != null) {
-            return lowerCaseValue;
+        int type = building.typeIndex;
+        if (type >= 0 && type < weights.length) {
+            return weights[type];
         }
-        return 100; // default weight
+        return ConfigManager.DEFAULT_TARGET_WEIGHT;
     }
 
     /**
@@ -1443,8 +1260,7 @@ abstract class Enemy extends Instance {
      * Called automatically from Enemy constructor.
      */
     private void loadFromConfig() {
-        EnemyStats stats = GameManager.getInstance().getConfigManager().getAllEnemyStats()
-                .get(this.getClass().getSimpleName());
+        EnemyStats stats = game.getConfigManager().getEnemyStats(this.getClass().getSimpleName());
         if (stats == null)
             return;
 
@@ -1482,10 +1298,8 @@ abstract class Enemy extends Instance {
             hitbox((int) stats.hitboxOffsetX, (int) stats.hitboxOffsetY, stats.hitboxWidth, stats.hitboxHeight);
         }
 
-        // Load targeting weights from config
-        if (stats.targetWeights != null && !stats.targetWeights.isEmpty()) {
-            weight.putAll(stats.targetWeights);
-        }
+        // Load targeting weights from config (already resolved per building type)
+        weights = stats.weightByBuildingType;
 
         // Load turrets and weapons
         if (stats.turrets == null)
@@ -1516,14 +1330,14 @@ abstract class Enemy extends Instance {
 // ---------------------------------------------------------------------------------------------
 
 class Recon extends Enemy {
-    public Recon(int x, int y) {
-        super(x, y);
+    public Recon(GameManager game, int x, int y) {
+        super(game, x, y);
     }
 }
 
 class Kodiak extends Enemy {
-    public Kodiak(int x, int y) {
-        super(x, y);
+    public Kodiak(GameManager game, int x, int y) {
+        super(game, x, y);
     }
 }
 
@@ -1532,6 +1346,9 @@ class Kodiak extends Enemy {
 // ============================================================================================
 
 class Turret implements Elements.Renderable {
+    final GameManager game; // match of the parent instance
+    final SimRandom random; // this turret's own stream (target rolls)
+    final TimerWheel timers; // powered wheel for buildings (slows down in a power deficit)
     Instance parent;
     double exactX, exactY;
     int offsetX, offsetY; // offset from parent in pixels
@@ -1551,20 +1368,41 @@ class Turret implements Elements.Renderable {
     private boolean isTargeting = false;
 
     // for buildings
-    private Enemy eTarget = null;
+    private int eTarget = InstanceArena.NONE; // handle of the tracked enemy, resolves to null once it is gone
 
     // for enemies
     private Point bTarget = null;
     private double interval = 1.0; // time between target acquisition attempts
     private double cooldown = 2.0; // cooldown before able to shoot again after shooting (fire() will set this to
                                    // weapon().cooldown)
-    private double intervalTimer = 0.0;
-    private double cooldownTimer = 0.0;
+    private long intervalStart; // wheel time of the last acquisition attempt
+    private long cooldownStart; // wheel time the last targeting ended
     private double chance = 0.1; // 100% chance to acquire target
 
     private double durationTimer = 0.0;
 
+    // Results of the sense phase, consumed by the next update (act phase)
+    private boolean sensed = false;
+    private Point sensedCell; // enemies: building cell picked this tick, null = none
+    private int sensedEnemy = InstanceArena.NONE; // buildings: enemy acquired this tick
+    private boolean sensedValid; // buildings: tracked enemy still alive and in range
+    private Point sensedAim; // buildings: predicted position of the tracked enemy
+
+    // Sleep while no enemy is on the path segments within range (buildings only)
+    private boolean asleep = false;
+    private long[] zone; // path segments within range, see RangeZones
+    private double zoneRange = -1; // range in pixels the zone was computed for
+
+    // Scratch of findBuilding (enemies), reused so acquisition allocates nothing
+    private int[] inRange = new int[0];
+    private Building[] candidates = new Building[0];
+    private int[] weights = new int[0];
+
     public Turret(Instance parent, int offsetX, int offsetY, int rot) { // for buildings
+        this.game = parent.game;
+        this.random = game.newRandomStream();
+        this.timers = game.timersFor(parent);
+        this.intervalStart = this.cooldownStart = timers.now();
         this.parent = parent;
         this.offsetX = offsetX;
         this.offsetY = offsetY;
@@ -1573,6 +1411,10 @@ class Turret implements Elements.Renderable {
     }
 
     public Turret(Instance parent, int offsetX, int offsetY, int rot, double interval, double chance, double cooldown) { // for
+        this.game = parent.game;
+        this.random = game.newRandomStream();
+        this.timers = game.timersFor(parent);
+        this.intervalStart = this.cooldownStart = timers.now();
         this.parent = parent;
         this.offsetX = offsetX;
         this.offsetY = offsetY;
@@ -1585,6 +1427,10 @@ class Turret implements Elements.Renderable {
 
     // with z-index
     public Turret(Instance parent, int offsetX, int offsetY, int rot, int zIndex) { // for buildings
+        this.game = parent.game;
+        this.random = game.newRandomStream();
+        this.timers = game.timersFor(parent);
+        this.intervalStart = this.cooldownStart = timers.now();
         this.parent = parent;
         this.offsetX = offsetX;
         this.offsetY = offsetY;
@@ -1595,6 +1441,10 @@ class Turret implements Elements.Renderable {
 
     public Turret(Instance parent, int offsetX, int offsetY, int rot, double interval, double chance, double cooldown,
             int zIndex) { // for enemies
+        this.game = parent.game;
+        this.random = game.newRandomStream();
+        this.timers = game.timersFor(parent);
+        this.intervalStart = this.cooldownStart = timers.now();
         this.parent = parent;
         this.offsetX = offsetX;
         this.offsetY = offsetY;
@@ -1604,18 +1454,85 @@ class Turret implements Elements.Renderable {
         this.interval = interval;
         this.chance = chance;
         this.cooldown = cooldown;
-        this.cooldownTimer = cooldown;  // Start enemies on cooldown so they don't fire immediately
+        this.cooldownStart = timers.ago(cooldown);  // Start enemies on cooldown so they don't fire immediately
+    }
+
+    /**
+     * Sense phase: pick a target and the aim point from the world as it was
+     * at the start of the tick. Only reads the world and writes this turret's
+     * own fields (and draws from its own stream), so turrets can sense in
+     * parallel; update() acts on the result.
+     */
+    void sense(float deltaTime) {
+        updatePosition();
+        sensedCell = null;
+        sensedEnemy = InstanceArena.NONE;
+        sensedAim = null;
+        sensedValid = false;
+        if (parent instanceof Enemy) {
+            // Same timer test as update() makes (the wheel is already at this tick)
+            if (!isTargeting && acquisitionDue() && random.nextDouble() < chance) {
+                // Try to find a building cell in range
+                sensedCell = findBuilding();
+            }
+        } else if (parent instanceof Building) {
+            if (isTargeting) {
+                Instance target = game.resolve(eTarget);
+                sensedValid = target != null && target.isAlive() && Math.sqrt(Math.pow(target.exactX - exactX, 2)
+                        + Math.pow(target.exactY - exactY, 2)) <= range * parent.rangeMult * Location.cellSize;
+                if (sensedValid) {
+                    // Predict enemy position
+                    sensedAim = predict((Enemy) target);
+                }
+            } else {
+                Enemy target = findEnemy();
+                sensedEnemy = target != null ? target.handle : InstanceArena.NONE;
+            }
+        }
+        sensed = true;
+    }
+
+    /**
+     * Whether this turret can skip the tick: a building turret without a
+     * target and no enemy on any path segment within its range
+     */
+    boolean sleeps(RangeZones zones) {
+        asleep = false;
+        if (!(parent instanceof Building) || isTargeting) {
+            return false;
+        }
+        double reach = range * parent.rangeMult * Location.cellSize;
+        if (zone == null || reach != zoneRange) { // first time, or the Radar Dish changed the range
+            updatePosition();
+            zone = zones.zoneOf(exactX, exactY, reach);
+            zoneRange = reach;
+        }
+        asleep = !zones.anyOccupied(zone);
+        return asleep;
+    }
+
+    boolean isTargeting() {
+        return isTargeting;
     }
 
+    /**
+     * Act phase: turn, fire and change state on what sense() found
+     * (senses first if the sense phase did not run for this turret)
+     */
     void update(float deltaTime) {
-        if (GameManager.getInstance().getPower() < 0 && parent instanceof Building) {
-            deltaTime = deltaTime / 2;
+        if (asleep) {
+            asleep = false;
+            return; // nothing can be in range, sense() would find nothing to act on
+        }
+        if (!sensed) {
+            sense(deltaTime);
         }
+        sensed = false;
+        updatePosition();
+        deltaTime = timers.scale(deltaTime); // half speed on the powered wheel in a power deficit
         if (parent instanceof Enemy) {
             // Enemy targeting logic - target building cells
             Enemy eParent = (Enemy) parent;
-            intervalTimer += deltaTime;
-            cooldownTimer += deltaTime;
 
             if (isTargeting) {
 
@@ -1627,7 +1544,7 @@ class Turret implements Elements.Renderable {
                     isTargeting = false;
                     bTarget = null;
                     durationTimer = 0;
-                    cooldownTimer = 0;  // Start cooldown after targeting ends
+                    cooldownStart = timers.now();  // Start cooldown after targeting ends
                 } else {
                     double targetX = bTarget.x * Location.cellSize + Location.cellSize / 2.0;
                     double targetY = bTarget.y * Location.cellSize + Location.cellSize / 2.0;
@@ -1661,16 +1578,13 @@ class Turret implements Elements.Renderable {
                 }
             } else {
                 // Check for new targets
-                if (intervalTimer >= interval && cooldownTimer >= cooldown) {
-                    intervalTimer = 0;
-
-                    if (Math.random() < chance) {
-                        // Try to find a building cell in range
-                        Point target = findBuilding();
-                        if (target != null) {
-                            bTarget = target;
-                            isTargeting = true;
-                        }
+                if (acquisitionDue()) {
+                    intervalStart = timers.now();
+
+                    // chance roll and building pick were made by sense()
+                    if (sensedCell != null) {
+                        bTarget = sensedCell;
+                        isTargeting = true;
                     }
                 }
 
@@ -1698,13 +1612,12 @@ class Turret implements Elements.Renderable {
             }
         } else if (parent instanceof Building) {
             if (isTargeting) {
-                if (eTarget == null || !eTarget.isAlive() || Math.sqrt(Math.pow(eTarget.exactX - exactX, 2)
-                        + Math.pow(eTarget.exactY - exactY, 2)) > range * parent.rangeMult * Location.cellSize) {
+                Instance target = game.resolve(eTarget);
+                if (!sensedValid || target == null) {
                     isTargeting = false;
-                    eTarget = null;
+                    eTarget = InstanceArena.NONE;
                 } else {
-                    // Predict enemy position
-                    Point pos = predict(eTarget);
+                    Point pos = sensedAim;
                     if (pos != null) {
                         double targetX = pos.x;
                         double targetY = pos.y;
@@ -1731,93 +1644,115 @@ class Turret implements Elements.Renderable {
                         // If close enough like 1 degree then fire() the weapons, tighter because
                         // building is stationary
                         if (Math.abs(angleDiff) < Math.toRadians(1)) {
-                            fire(facing, eTarget);
+                            fire(facing, target);
                         }
                     }
                 }
 
-            } else {
-                Enemy target = findEnemy();
-                if (target != null) {
-                    eTarget = target;
-                    isTargeting = true;
-                }
+            } else if (sensedEnemy != InstanceArena.NONE) {
+                eTarget = sensedEnemy;
+                isTargeting = true;
             }
         }
     }
 
+    // Next acquisition attempt is due: interval since the last one, and off cooldown
+    private boolean acquisitionDue() {
+        return timers.elapsed(intervalStart, interval) && timers.elapsed(cooldownStart, cooldown);
+    }
+
     private Point findBuilding() {
         if (!(parent instanceof Enemy)) {
             return null;
         }
 
         Enemy eParent = (Enemy) parent;
-        HashMap<Building, ArrayList<Point>> buildingToCells = new HashMap<>();
-
-        // Check all building occupied cells
-        for (Point buildingCell : Location.buildingOccupancy.keySet()) {
-            double cellCenterX = buildingCell.x * Location.cellSize + Location.cellSize / 2.0;
-            double cellCenterY = buildingCell.y * Location.cellSize + Location.cellSize / 2.0;
+        // Only the building cells near the path segment the enemy is on can be in range
+        int reachCells = (int) Math.ceil(range * parent.rangeMult + Math.hypot(offsetX, offsetY) / Location.cellSize) + 1;
+        BuildingRanges.Segment near = game.getBuildingRanges().near(eParent.pathIndex, reachCells);
+        Point[] cells = near.cells;
+        Building[] owners = near.owners;
+        if (inRange.length < cells.length) {
+            inRange = new int[cells.length];
+            candidates = new Building[cells.length];
+            weights = new int[cells.length];
+        }
+
+        // Cells in range, and their buildings in the order first seen (same order as the whole map)
+        int inRangeCount = 0;
+        int candidateCount = 0;
+        for (int i = 0; i < cells.length; i++) {
+            double cellCenterX = cells[i].x * Location.cellSize + Location.cellSize / 2.0;
+            double cellCenterY = cells[i].y * Location.cellSize + Location.cellSize / 2.0;
 
             double distance = Math.sqrt(Math.pow(cellCenterX - exactX, 2) + Math.pow(cellCenterY - exactY, 2));
             double distanceInCells = distance / Location.cellSize;
 
             if (distanceInCells <= range * parent.rangeMult) {
-                Building building = Location.buildingOccupancy.get(buildingCell);
-                if (building != null) {
-                    ArrayList<Point> cells = buildingToCells.get(building);
-                    if (cells == null) {
-                        cells = new ArrayList<>();
-                        buildingToCells.put(building, cells);
-                    }
-                    cells.add(buildingCell);
+                inRange[inRangeCount++] = i;
+                if (indexOf(candidates, candidateCount, owners[i]) < 0) {
+                    candidates[candidateCount++] = owners[i];
                 }
             }
         }
 
-        if (buildingToCells.isEmpty()) { // no buildings in range
+        if (candidateCount == 0) { // no buildings in range
             return null;
         }
 
-        ArrayList<Building> candidates = new ArrayList<>(buildingToCells.keySet());
         int totalWeight = 0;
-        ArrayList<Integer> weights = new ArrayList<>();
-
-        for (Building building : candidates) {
-            int weight = Math.max(0, eParent.getWeight(building));
-            weights.add(weight);
-            totalWeight += weight;
+        for (int i = 0; i < candidateCount; i++) {
+            weights[i] = Math.max(0, eParent.getWeight(candidates[i]));
+            totalWeight += weights[i];
         }
 
         Building selectedBuilding;
         if (totalWeight <= 0) {
-            selectedBuilding = candidates.get((int) (Math.random() * candidates.size()));
+            selectedBuilding = candidates[random.nextInt(candidateCount)];
         } else {
-            int roll = (int) (Math.random() * totalWeight);
+            int roll = random.nextInt(totalWeight);
             int cumulative = 0;
-            selectedBuilding = candidates.get(0); // fallback
-            for (int i = 0; i < candidates.size(); i++) {
-                cumulative += weights.get(i);
+            selectedBuilding = candidates[0]; // fallback
+            for (int i = 0; i < candidateCount; i++) {
+                cumulative += weights[i];
                 if (roll < cumulative) {
-                    selectedBuilding = candidates.get(i);
+                    selectedBuilding = candidates[i];
                     break;
                 }
             }
         }
+        Arrays.fill(candidates, 0, candidateCount, null); // don't keep destroyed buildings reachable
 
-        ArrayList<Point> cells = buildingToCells.get(selectedBuilding);
-        if (cells == null || cells.isEmpty()) {
-            return null;
+        // Pick one of the selected building's cells in range
+        int selectedCells = 0;
+        for (int i = 0; i < inRangeCount; i++) {
+            if (owners[inRange[i]] == selectedBuilding) {
+                selectedCells++;
+            }
         }
+        int pick = random.nextInt(selectedCells);
+        for (int i = 0; i < inRangeCount; i++) {
+            if (owners[inRange[i]] == selectedBuilding && pick-- == 0) {
+                return cells[inRange[i]];
+            }
+        }
+        return null;
+    }
 
-        return cells.get((int) (Math.random() * cells.size()));
+    private static int indexOf(Building[] buildings, int count, Building building) {
+        for (int i = 0; i < count; i++) {
+            if (buildings[i] == building) {
+                return i;
+            }
+        }
+        return -1;
     }
 
     private Enemy findEnemy() {
         // scan for enemies in range
         ArrayList<Enemy> enemies = new ArrayList<>();
         int maxIdx = 0;
-        for (Instance i : Gamma.getInstances()) {
+        for (Instance i : game.getInstances()) {
             if (i instanceof Enemy) {
                 Enemy enemy = (Enemy) i;
                 double distance = Math.sqrt(Math.pow(enemy.exactX - exactX, 2) + Math.pow(enemy.exactY - exactY, 2))
@@ -1877,8 +1812,8 @@ class Turret implements Elements.Renderable {
         double predictedY = enemy.exactY;
 
         // Calculate enemy's movement direction and speed
-        if (enemy.pathIndex + 1 < Location.path.size()) {
-            Point currentTarget = Location.path.get(enemy.pathIndex + 1);
+        if (enemy.pathIndex + 1 < game.getMap().getPath().size()) {
+            Point currentTarget = game.getMap().getPath().get(enemy.pathIndex + 1);
             double targetX = currentTarget.x * Location.cellSize + Location.cellSize / 2.0;
             double targetY = currentTarget.y * Location.cellSize + Location.cellSize / 2.0;
 
@@ -1897,11 +1832,8 @@ class Turret implements Elements.Renderable {
         return new Point((int) predictedX, (int) predictedY);
     }
 
-    public void render(Graphics2D g) {
-        if (parent.image == null) {
-            return; // parent image not loaded yet
-        }
-
+    // Position of the turret on its parent, needed for targeting even when nothing is rendered
+    void updatePosition() {
         Building bParent = parent instanceof Building ? (Building) parent : null;
         double cos = Math.cos(parent.facing);
         double sin = Math.sin(parent.facing);
@@ -1913,6 +1845,14 @@ class Turret implements Elements.Renderable {
                 * cos;
         exactX = parent.exactX + rotatedOffsetX;
         exactY = parent.exactY + rotatedOffsetY;
+    }
+
+    public void render(Graphics2D g) {
+        if (parent.image == null) {
+            return; // parent image not loaded yet
+        }
+
+        updatePosition();
 
         BufferedImage img = Utilities.load(getParent() + "_tur", scaleX, scaleY);
         if (img != null) {
@@ -1927,6 +1867,32 @@ class Turret implements Elements.Renderable {
         }
     }
 
+    // Snapshot state: aim, target and timers (position follows the parent)
+    void save(MatchSnapshot out) {
+        ByteBuffer buf = out.buffer();
+        buf.putDouble(facing);
+        out.putBoolean(isTargeting);
+        buf.putInt(out.idOf(game.resolve(eTarget)));
+        buf.putInt(bTarget != null ? bTarget.x : -1).putInt(bTarget != null ? bTarget.y : -1);
+        buf.putLong(intervalStart).putLong(cooldownStart).putDouble(durationTimer);
+        out.putRandom(random);
+    }
+
+    void load(MatchSnapshot in) {
+        ByteBuffer buf = in.buffer();
+        facing = buf.getDouble();
+        isTargeting = in.getBoolean();
+        eTarget = in.handleAt(buf.getInt());
+        int targetX = buf.getInt();
+        int targetY = buf.getInt();
+        bTarget = targetX >= 0 ? new Point(targetX, targetY) : null;
+        intervalStart = buf.getLong();
+        cooldownStart = buf.getLong();
+        durationTimer = buf.getDouble();
+        in.getRandom(random);
+        updatePosition();
+    }
+
     // method to get all weapons with this as their parent
     ArrayList<Weapon> getWeapons() {
         ArrayList<Weapon> result = new ArrayList<>();
@@ -1967,6 +1933,8 @@ class Turret implements Elements.Renderable {
 class Weapon { // Concrete weapon class - can be instantiated directly or subclassed
                // All behavior configured via stats (rof, burst, projectileType, etc.)
                // No need for subclasses unless custom projectile creation is needed
+    final GameManager game; // match of the parent turret
+    final SimRandom random; // this weapon's own stream (spread)
     Turret parent;
     String name = "Weapon"; // Name of the weapon for identification
     int damage = 10;
@@ -1983,27 +1951,26 @@ class Weapon { // Concrete weapon class - can be instantiated directly or subcla
     double spread = 0; // degrees of random spread
     String projectileType = "bullet"; // type of projectile to create
 
-    double rofTimer = 0.0;
-    double burstTimer = 0.0;
+    long rofStart; // wheel time the current burst started
+    long burstStart; // wheel time of the last shot
 
     public Weapon(Turret parent, int offsetX, int offsetY) {
+        this.game = parent.game;
+        this.random = game.newRandomStream();
         this.parent = parent;
         this.offsetX = offsetX;
         this.offsetY = offsetY;
+        this.rofStart = this.burstStart = parent.timers.now();
     }
 
     void update(float deltaTime) {
-        if (GameManager.getInstance().getPower() < 0 && parent.parent instanceof Building) {
-            deltaTime = deltaTime / 2;
+        // A turret only fires while it has a target, so idle weapons skip the muzzle
+        if (parent.isTargeting()) {
+            double cos = Math.cos(parent.facing);
+            double sin = Math.sin(parent.facing);
+            this.muzzleX = parent.exactX + (offsetX * cos - offsetY * sin);
+            this.muzzleY = parent.exactY + (offsetX * sin + offsetY * cos);
         }
-
-        // keep updating the timers even when not firing
-        rofTimer += deltaTime;
-        burstTimer += deltaTime;
-        double cos = Math.cos(parent.facing);
-        double sin = Math.sin(parent.facing);
-        this.muzzleX = parent.exactX + (offsetX * cos - offsetY * sin);
-        this.muzzleY = parent.exactY + (offsetX * sin + offsetY * cos);
     }
 
     /**
@@ -2015,7 +1982,7 @@ class Weapon { // Concrete weapon class - can be instantiated directly or subcla
      * - burstDelay: Interval between individual shots within a burst (in seconds)
      * 
      * Firing sequence:
-     * 1. Wait for rofTimer >= rof (ready for new burst)
+     * 1. Wait until rof has passed since the last burst started (ready for new burst)
      * 2. Fire shots at burstDelay intervals (up to 'burst' shots)
      * 3. After burst exhausted, wait for next rof cooldown
      * 4. Repeat
@@ -2032,25 +1999,27 @@ class Weapon { // Concrete weapon class - can be instantiated directly or subcla
      */
     void fire(double angle, Instance target) {
         boolean shouldFire = false;
+        // Weapons reload on the ticks before this one: times are taken at the start of the tick,
+        // on the powered wheel for buildings (half speed in a power deficit)
+        TimerWheel timers = parent.timers;
+        long now = timers.tickStart();
 
         // Check if we're ready to fire (either starting fresh or continuing a burst)
-        if (shot == 0 && rofTimer >= rof / parent.parent.rofMult) {
+        if (shot == 0 && now - rofStart >= TimerWheel.toUnits(rof / parent.parent.rofMult)) {
             // Starting a new burst - reset the burst timer
             shouldFire = true;
             shot = 1;
-            burstTimer = 0;
-            rofTimer = 0;
-        } else if (shot > 0 && shot < burst && burstTimer >= burstDelay / parent.parent.rofMult) {
+            burstStart = rofStart = now;
+        } else if (shot > 0 && shot < burst && now - burstStart >= TimerWheel.toUnits(burstDelay / parent.parent.rofMult)) {
             // Continuing within a burst - fire next shot
             shouldFire = true;
             shot++;
-            burstTimer = 0;
-        } else if (shot >= burst && rofTimer >= rof / parent.parent.rofMult) {
+            burstStart = now;
+        } else if (shot >= burst && now - rofStart >= TimerWheel.toUnits(rof / parent.parent.rofMult)) {
             // Burst exhausted, ready for next burst
             shouldFire = true;
             shot = 1;
-            burstTimer = 0;
-            rofTimer = 0;
+            burstStart = rofStart = now;
         }
 
         if (shouldFire) {
@@ -2081,7 +2050,23 @@ class Weapon { // Concrete weapon class - can be instantiated directly or subcla
             projectile.setTarget(target);
         }
 
-        Gamma.add(projectile);
+        game.getCommands().spawn(parent.parent, projectile);
+    }
+
+    // Snapshot state: firing timers and the spread stream
+    void save(MatchSnapshot out) {
+        out.buffer().putLong(rofStart).putLong(burstStart).putInt(shot).putDouble(muzzleX).putDouble(muzzleY);
+        out.putRandom(random);
+    }
+
+    void load(MatchSnapshot in) {
+        ByteBuffer buf = in.buffer();
+        rofStart = buf.getLong();
+        burstStart = buf.getLong();
+        shot = buf.getInt();
+        muzzleX = buf.getDouble();
+        muzzleY = buf.getDouble();
+        in.getRandom(random);
     }
 
     /**
@@ -2141,7 +2126,8 @@ class Projectile extends Instance {
     String projectileType; // "bullet", "shell", "cannonshell", etc.
     String imgName;
     int zIndex = 15;
-    ArrayList<Instance> hit = new ArrayList<>();
+    int[] hit = new int[2]; // handles of the instances already hit, for pierce
+    int hits = 0;
 
     double speed = 5.0; // cells per second
     double acceleration = 0.0; // for accelerate movement type
@@ -2172,16 +2158,15 @@ class Projectile extends Instance {
      *                       behavior
      */
     public Projectile(String projectileType, Weapon parent, boolean isTargeting) {
-        super(parent.muzzleX, parent.muzzleY);
+        super(parent.game, parent.muzzleX, parent.muzzleY);
         this.projectileType = projectileType;
         this.parent = parent;
         this.iParent = parent.parent.parent;
         this.isTargeting = isTargeting;
-        this.facing = parent.parent.facing + Math.toRadians((Math.random() - 0.5) * parent.spread);
+        this.facing = parent.parent.facing + Math.toRadians((parent.random.nextDouble() - 0.5) * parent.spread);
         this.speed = parent.pSpeed;
         this.damage = parent.damage;
         this.pierce = parent.pierce;
-        this.hit = new ArrayList<>();
 
         // Load projectile-specific configuration
         loadProjectileConfig(projectileType);
@@ -2330,8 +2315,8 @@ class Projectile extends Instance {
                 ? collisionExclude.trim().split("\\s+")
                 : new String[0];
 
-        for (Instance instance : Gamma.getInstances()) {
-            if (instance == iParent || hit.contains(instance))
+        for (Instance instance : game.getInstances()) {
+            if (instance == iParent || hasHit(instance.handle))
                 continue;
 
             String instanceType = instance.getClass().getSimpleName().toLowerCase();
@@ -2341,13 +2326,29 @@ class Projectile extends Instance {
                 continue;
 
             if (collidesWithInstance(instance)) {
-                hit.add(instance);
+                addHit(instance.handle);
                 return instance;
             }
         }
         return null;
     }
 
+    private boolean hasHit(int handle) {
+        for (int i = 0; i < hits; i++) {
+            if (hit[i] == handle) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void addHit(int handle) {
+        if (hits == hit.length) {
+            hit = Arrays.copyOf(hit, hits * 2);
+        }
+        hit[hits++] = handle;
+    }
+
     /**
      * Get the super type category of an instance.
      */
@@ -2458,10 +2459,8 @@ class Projectile extends Instance {
      * Apply damage to a target.
      */
     private void dealDamage(Instance target, int damage) {
-        target.health -= (int) (damage * iParent.damageMult);
-        if (target.health <= 0) {
-            target.destroy();
-        }
+        int dealt = (int) (damage * iParent.damageMult);
+        game.getCommands().damage(this, target, dealt, parent.name); // applied, and kills made, at the end of the tick
     }
 
     /**
@@ -2469,19 +2468,21 @@ class Projectile extends Instance {
      * Creates visual effect and damages all non-allied instances within radius.
      */
     private void triggerExplosion() {
-        // Create visual effect
-        Empty explosionHolder = new Empty();
-        explosionHolder.exactX = this.exactX;
-        explosionHolder.exactY = this.exactY;
-        Gamma.add(explosionHolder);
-        Utilities.animLoad("explode", (int) exactX, (int) exactY,
-                explosionRadius / 1.5, explosionRadius / 1.5, explosionHolder, false);
+        // Create visual effect (nothing to see in headless runs)
+        if (!game.isHeadless()) {
+            Empty explosionHolder = new Empty(game);
+            explosionHolder.exactX = this.exactX;
+            explosionHolder.exactY = this.exactY;
+            game.getCommands().spawn(this, explosionHolder);
+            Utilities.animLoad("explode", (int) exactX, (int) exactY,
+                    explosionRadius / 1.5, explosionRadius / 1.5, explosionHolder, false);
+        }
 
         // Deal area damage
         double explosionRadiusPx = explosionRadius * Location.cellSize;
-        for (Instance instance : Gamma.getInstances()) {
-            if (instance == iParent)
-                continue;
+        for (Instance instance : game.getInstances()) {
+            if (instance == iParent || instance instanceof Empty)
+                continue; // explosion holders are visual only and don't exist headless
 
             String superType = getSuperType(instance);
             boolean isAlly = (iParent instanceof Enemy && superType.equals("enemy")) ||
@@ -2512,11 +2513,41 @@ class Projectile extends Instance {
                 exactY + radius < 0 || exactY - radius > Gamma.HEIGHT) {
             alive = false;
         }
-        if (hit.size() > pierce) {
+        if (hits > pierce) {
             alive = false;
         }
     }
 
+    @Override
+    void save(MatchSnapshot out) {
+        super.save(out);
+        ByteBuffer buf = out.buffer();
+        buf.putDouble(speed).putInt(damage).putInt(pierce);
+        buf.putDouble(targetX).putDouble(targetY).putDouble(travelDistance).putDouble(distanceTraveled);
+        buf.putInt(hits);
+        for (int i = 0; i < hits; i++) {
+            buf.putInt(out.idOf(game.resolve(hit[i]))); // -1 for instances that are gone, they still count for pierce
+        }
+    }
+
+    @Override
+    void load(MatchSnapshot in) {
+        super.load(in);
+        ByteBuffer buf = in.buffer();
+        speed = buf.getDouble();
+        damage = buf.getInt();
+        pierce = buf.getInt();
+        targetX = buf.getDouble();
+        targetY = buf.getDouble();
+        travelDistance = buf.getDouble();
+        distanceTraveled = buf.getDouble();
+        hits = 0;
+        int saved = buf.getInt();
+        for (int i = 0; i < saved; i++) {
+            addHit(in.handleAt(buf.getInt()));
+        }
+    }
+
     @Override
     public void destroy() {
         // Projectiles are destroyed via setting alive = false in checkBounds()
@@ -2561,27 +2592,39 @@ class Wave {
     }
 }
 
+// Wave patterns are shared by every match, spawn progress belongs to one match
 class WaveManager {
     private static HashMap<Integer, ArrayList<Wave>> waves = new HashMap<>();
-    private static HashMap<Wave, Integer> currentSpawnCount = new HashMap<>();
-    private static HashMap<Wave, Double> spawnTimer = new HashMap<>();
-    private static HashMap<Wave, Double> delayTimer = new HashMap<>();
-    public static boolean waveActive = false;
-    private static double waveStartTime = 0;
+    private HashMap<Wave, Integer> currentSpawnCount = new HashMap<>();
+    private HashMap<Wave, Double> spawnTimer = new HashMap<>();
+    private HashMap<Wave, Double> delayTimer = new HashMap<>();
+    public boolean waveActive = false;
+    private double waveStartTime = -1; // simulated time, -1 until the first spawn update
 
     // Wave completion and auto-advance
-    public static boolean waveCompleted = false;
-    private static double waveCompletionTime = 0;
-    public static int conqueredWave = 0;
+    public boolean waveCompleted = false;
+    private double waveCompletionTime = 0;
+    public int conqueredWave = 0;
     private static final double WAVE_INTERMISSION = 5.0; // 5 seconds
 
     // Infinite wave system
-    public static int currentCycle = 1; // Tracks which cycle we're on (1st run, 2nd run, etc.)
+    public int currentCycle = 1; // Tracks which cycle we're on (1st run, 2nd run, etc.)
+
+    private final GameManager game; // the match enemies are spawned into
 
     static {
         letTheFunBegins();
     }
 
+    public WaveManager(GameManager game) {
+        this.game = game;
+    }
+
+    // All wave timing reads simulated time so pause and fast forward apply to it
+    private SimClock clock() {
+        return game.getClock();
+    }
+
     // --- Helpers to dynamically map continuous wave numbers to defined base
     // patterns ---
     private static ArrayList<Integer> getBasePatternKeys() {
@@ -2604,7 +2647,7 @@ class WaveManager {
         return keys.get(idx);
     }
 
-    public static void startWave(int waveNumber) {
+    public void startWave(int waveNumber) {
         // Map any wave number to one of the defined base patterns dynamically
         int patternKey = getPatternKeyForWave(waveNumber);
         if (patternKey == -1 || !waves.containsKey(patternKey)) {
@@ -2612,7 +2655,7 @@ class WaveManager {
         }
 
         waveActive = true;
-        waveStartTime = 0; // Will be set in update
+        waveStartTime = -1; // Will be set in update
         currentSpawnCount.clear();
         spawnTimer.clear();
         delayTimer.clear();
@@ -2626,14 +2669,14 @@ class WaveManager {
 
     }
 
-    public static void update(float deltaTime, int currentWave) {
+    public void update(float deltaTime, int currentWave) {
         // Dynamically map currentWave to a base pattern
         int patternKey = getPatternKeyForWave(currentWave);
         if (!waveActive || patternKey == -1 || !waves.containsKey(patternKey))
             return;
 
-        if (waveStartTime == 0) {
-            waveStartTime = System.currentTimeMillis() / 1000.0;
+        if (waveStartTime < 0) {
+            waveStartTime = clock().now();
         }
 
         boolean waveComplete = true;
@@ -2679,15 +2722,14 @@ class WaveManager {
         if (waveComplete) {
             waveActive = false;
             waveCompleted = true;
-            waveCompletionTime = System.currentTimeMillis() / 1000.0;
+            waveCompletionTime = clock().now();
             conqueredWave = currentWave;
         }
     }
 
-    public static int updateWaveCompletion(float deltaTime, int currentWave) {
+    public int updateWaveCompletion(float deltaTime, int currentWave) {
         if (waveCompleted) {
-            double currentTime = System.currentTimeMillis() / 1000.0;
-            if (currentTime - waveCompletionTime >= WAVE_INTERMISSION) {
+            if (clock().now() - waveCompletionTime >= WAVE_INTERMISSION) {
                 waveCompleted = false;
                 // Always increment to next wave number
                 int nextWave = conqueredWave + 1;
@@ -2703,10 +2745,11 @@ class WaveManager {
         return currentWave; // Return the same wave number if no change
     }
 
-    private static void spawnEnemy(Class<? extends Enemy> enemyClass) {
+    private void spawnEnemy(Class<? extends Enemy> enemyClass) {
         try {
-            Enemy enemy = enemyClass.getDeclaredConstructor(int.class, int.class)
-                    .newInstance(Location.start.x, Location.start.y);
+            Point start = game.getMap().getStartPoint();
+            Enemy enemy = enemyClass.getDeclaredConstructor(GameManager.class, int.class, int.class)
+                    .newInstance(game, start.x, start.y);
 
             // Apply cycle multipliers to the enemy
             enemy.healthMult = currentCycle;
@@ -2715,17 +2758,79 @@ class WaveManager {
             enemy.health = (int) (enemy.maxHealth * enemy.healthMult);
             enemy.maxHealth = (int) (enemy.maxHealth * enemy.healthMult);
 
-            Gamma.add(enemy);
+            game.addInstance(enemy);
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
 
-    public static double calmBeforeTheStorm() {
+    // Clear all wave progress (new match or back to menu)
+    public void reset() {
+        waveActive = false;
+        waveCompleted = false;
+        waveStartTime = -1;
+        conqueredWave = 0;
+        currentCycle = 1;
+        currentSpawnCount.clear();
+        spawnTimer.clear();
+        delayTimer.clear();
+    }
+
+    /**
+     * Write spawn progress to a snapshot. Progress of the current wave's
+     * pattern is stored per part, in pattern order.
+     */
+    void save(MatchSnapshot out) {
+        ByteBuffer buf = out.buffer();
+        out.putBoolean(waveActive);
+        buf.putDouble(waveStartTime);
+        out.putBoolean(waveCompleted);
+        buf.putDouble(waveCompletionTime).putInt(conqueredWave).putInt(currentCycle);
+        ArrayList<Wave> parts = waves.get(getPatternKeyForWave(game.getWave()));
+        buf.putInt(parts != null ? parts.size() : 0);
+        if (parts != null) {
+            for (Wave part : parts) {
+                boolean tracked = currentSpawnCount.containsKey(part);
+                out.putBoolean(tracked);
+                if (tracked) {
+                    buf.putInt(currentSpawnCount.get(part)).putDouble(spawnTimer.get(part))
+                            .putDouble(delayTimer.get(part));
+                }
+            }
+        }
+    }
+
+    /**
+     * Read back what save() wrote; the match wave must be restored first
+     */
+    void load(MatchSnapshot in) {
+        ByteBuffer buf = in.buffer();
+        reset();
+        waveActive = in.getBoolean();
+        waveStartTime = buf.getDouble();
+        waveCompleted = in.getBoolean();
+        waveCompletionTime = buf.getDouble();
+        conqueredWave = buf.getInt();
+        currentCycle = buf.getInt();
+        ArrayList<Wave> parts = waves.get(getPatternKeyForWave(game.getWave()));
+        int count = buf.getInt();
+        if (count != (parts != null ? parts.size() : 0)) {
+            throw new IllegalStateException("Wave " + game.getWave() + " pattern differs from the snapshot");
+        }
+        for (int i = 0; i < count; i++) {
+            if (in.getBoolean()) {
+                Wave part = parts.get(i);
+                currentSpawnCount.put(part, buf.getInt());
+                spawnTimer.put(part, buf.getDouble());
+                delayTimer.put(part, buf.getDouble());
+            }
+        }
+    }
+
+    public double calmBeforeTheStorm() {
         if (!waveCompleted)
             return 0;
-        double currentTime = System.currentTimeMillis() / 1000.0;
-        double elapsed = currentTime - waveCompletionTime;
+        double elapsed = clock().now() - waveCompletionTime;
         return Math.max(0, WAVE_INTERMISSION - elapsed);
     }
 
@@ -2753,7 +2858,7 @@ class WaveManager {
         return new Wave(enemyClass, count, spawnInterval, delay);
     }
 
-    public static int getCurrentCycle() {
+    public int getCurrentCycle() {
         return currentCycle;
     }
 
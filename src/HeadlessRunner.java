@@ -0,0 +1,200 @@
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+/**
+ * Runs a match without any window, as fast as the CPU allows.
+ * Uses the same GameManager/GameLoop update path as the Swing front end,
+ * but feeds the SimClock fixed steps so runs are repeatable. The step is
+ * always GameLoop.FIXED_STEP, the unit the timer wheels count in.
+ *
+ * Usage (from the project root):
+ *   java -Djava.awt.headless=true -cp bin:lib/gson-2.10.1.jar HeadlessRunner [map] [mode] [waves] [maxMinutes]
+ *   java -Djava.awt.headless=true -cp bin:lib/gson-2.10.1.jar HeadlessRunner --replay replays/replay-123.bcr
+ */
+public class HeadlessRunner {
+    public static final double KROMER_SAMPLE_INTERVAL = 10.0; // simulated seconds between kromer samples
+
+    private final GameManager gameManager;
+    private final GameLoop gameLoop;
+    private Consumer<GameManager> afterTick; // called after every tick of run(), e.g. SnapshotCheck
+
+    /**
+     * Result of a single headless match
+     */
+    public static class Result {
+        public int wavesSurvived;
+        public boolean headquarterAlive;
+        public double simSeconds;
+        public long ticks;
+        public int kromer;
+        public int power;
+        public long wallNanos;
+        public long seed;
+        public int buildStepsDone; // build order steps carried out (0 without an order)
+        public List<Integer> kromerCurve = new ArrayList<>(); // kromer every KROMER_SAMPLE_INTERVAL sim seconds
+        public HashMap<String, Long> damageByWeapon = new HashMap<>();
+
+        @Override
+        public String toString() {
+            double wallSeconds = wallNanos / 1_000_000_000.0;
+            return "waves survived: " + wavesSurvived
+                    + ", HQ " + (headquarterAlive ? "alive" : "destroyed")
+                    + ", sim time: " + String.format("%.1f", simSeconds) + "s"
+                    + " (" + ticks + " ticks)"
+                    + ", kromer: " + kromer
+                    + ", power: " + power
+                    + ", wall time: " + String.format("%.2f", wallSeconds) + "s"
+                    + ", speed: " + String.format("%.0f", wallSeconds > 0 ? simSeconds / wallSeconds : 0) + "x";
+        }
+    }
+
+    public HeadlessRunner() {
+        this(loadConfigs());
+    }
+
+    /**
+     * Runner for a match that shares already loaded configs with other matches
+     * (one runner per thread for parallel runs)
+     */
+    public HeadlessRunner(ConfigManager configs) {
+        this.gameManager = new GameManager(configs);
+        this.gameManager.setHeadless(true);
+        this.gameManager.initIcons();
+        this.gameLoop = new GameLoop(gameManager);
+    }
+
+    public GameManager getGameManager() {
+        return gameManager;
+    }
+
+    /**
+     * Pool for the turret sense phase, null = serial (when matches already run in parallel)
+     */
+    public void setSensePool(ForkJoinPool pool) {
+        gameLoop.getSensePhase().setPool(pool);
+    }
+
+    /**
+     * Call the given check after every tick of run() (null = none)
+     */
+    public void setAfterTick(Consumer<GameManager> afterTick) {
+        this.afterTick = afterTick;
+    }
+
+    /**
+     * Load the JSON configs once, to be shared by every runner
+     */
+    public static ConfigManager loadConfigs() {
+        ConfigManager configs = new ConfigManager();
+        configs.loadConfigs();
+        return configs;
+    }
+
+    /**
+     * Play a match until the requested number of waves is cleared, the
+     * Headquarter falls, or the simulated time limit is reached.
+     */
+    public Result run(String map, String mode, int waves, double maxSeconds) {
+        return run(map, mode, waves, maxSeconds, null);
+    }
+
+    /**
+     * Same as above, with the player's actions scripted by a build order
+     * (null = no buildings besides the Headquarter)
+     */
+    public Result run(String map, String mode, int waves, double maxSeconds, BuildOrder order) {
+        long start = System.nanoTime();
+        Result result = new Result();
+        gameManager.startMatch(map, mode);
+        if (order == null || !order.startsWaves()) {
+            gameManager.startWaves();
+        }
+
+        SimClock clock = gameManager.getClock();
+        WaveManager waveManager = gameManager.getWaveManager();
+        int buildStep = 0;
+        double nextSample = 0;
+        while (!gameManager.isGameOver() && waveManager.conqueredWave < waves && clock.now() < maxSeconds) {
+            if (order != null) {
+                buildStep = order.execute(gameManager, buildStep);
+            }
+            if (clock.now() >= nextSample) {
+                result.kromerCurve.add(gameManager.getKromer());
+                nextSample += KROMER_SAMPLE_INTERVAL;
+            }
+            gameLoop.updateGameObjects(GameLoop.FIXED_STEP);
+            if (afterTick != null) {
+                afterTick.accept(gameManager);
+            }
+        }
+
+        result.buildStepsDone = buildStep;
+        return finish(result, start);
+    }
+
+    // Fill in the end-of-match numbers
+    private Result finish(Result result, long startNanos) {
+        SimClock clock = gameManager.getClock();
+        result.wavesSurvived = gameManager.getWaveManager().conqueredWave;
+        result.headquarterAlive = !gameManager.isGameOver();
+        result.simSeconds = clock.now();
+        result.ticks = clock.getTicks();
+        result.kromer = gameManager.getKromer();
+        result.power = gameManager.getPower();
+        result.wallNanos = System.nanoTime() - startNanos;
+        result.seed = gameManager.getSeed();
+        result.damageByWeapon.putAll(gameManager.getDamageByWeapon());
+        return result;
+    }
+
+    /**
+     * Play a recorded match back at full speed, up to the tick it was saved at
+     * (or until the Headquarter falls)
+     */
+    public Result replay(CommandLog log) {
+        long start = System.nanoTime();
+        Result result = new Result();
+        gameManager.setSeed(log.getSeed());
+        gameManager.startMatch(log.getMap(), log.getMode());
+        gameLoop.setReplay(log);
+
+        SimClock clock = gameManager.getClock();
+        double nextSample = 0;
+        while (!gameManager.isGameOver() && !gameLoop.isReplayOver()) {
+            if (clock.now() >= nextSample) {
+                result.kromerCurve.add(gameManager.getKromer());
+                nextSample += KROMER_SAMPLE_INTERVAL;
+            }
+            gameLoop.updateGameObjects(GameLoop.FIXED_STEP);
+        }
+        gameLoop.setReplay(null);
+        return finish(result, start);
+    }
+
+    public static void main(String[] args) throws IOException {
+        System.setProperty("java.awt.headless", "true");
+
+        if (args.length >= 2 && args[0].equals("--replay")) {
+            CommandLog log = CommandLog.load(Paths.get(args[1]));
+            HeadlessRunner runner = new HeadlessRunner();
+            Result result = runner.replay(log);
+            System.out.println("[HeadlessRunner] replay " + args[1] + " (" + log.getMap() + " / " + log.getMode()
+                    + ", seed " + log.getSeed() + "): " + result);
+            return;
+        }
+
+        String map = args.length > 0 ? args[0] : "plain";
+        String mode = args.length > 1 ? args[1] : "normal";
+        int waves = args.length > 2 ? Integer.parseInt(args[2]) : 6;
+        double maxMinutes = args.length > 3 ? Double.parseDouble(args[3]) : 30;
+
+        HeadlessRunner runner = new HeadlessRunner();
+        Result result = runner.run(map, mode, waves, maxMinutes * 60);
+        System.out.println("[HeadlessRunner] " + map + " / " + mode + ": " + result);
+    }
+}
@@ -0,0 +1,63 @@
+/**
+ * Build menu entry for one building type.
+ * Holds only the construction state; all other data comes from BuildingStats.
+ * Lives with the match state (GameManager) so construction also runs headless.
+ */
+public class Icon {
+    // Reference to config data
+    BuildingStats stats;
+
+    // Construction state only - all other data comes from BuildingStats
+    boolean building = false;
+    final TimerWheel.Timer construction = new TimerWheel.Timer(this::finish); // on the powered wheel
+    boolean ready = false;
+
+    final long[] prerequisiteMask; // building types that must be standing (Census), null = can never be met
+
+    private final GameManager game;
+
+    // Constructor takes BuildingStats from config
+    Icon(GameManager game, BuildingStats stats) {
+        this.game = game;
+        this.stats = stats;
+        this.prerequisiteMask = game.getCensus().maskOf(stats.prerequisites);
+    }
+
+    void construct() {
+        building = true;
+        ready = false;
+        game.getPoweredTimers().schedule(construction, stats.buildTime);
+
+        // Set the appropriate category as under construction
+        game.setConstructing(stats.buildingType, true);
+    }
+
+    // Construction timer ran out (runs at half speed in a power deficit, see GameManager.getPoweredTimers)
+    private void finish() {
+        if (building && !ready) {
+            ready = true;
+            building = false;
+            // DON'T clear the construction flag here - the icon is still "ready" and
+            // blocking other constructions
+            // The flag will be cleared when the icon is either:
+            // 1. Placed in the world (ready becomes false), or
+            // 2. Refunded via right-click (both building and ready become false)
+        }
+    }
+
+    /**
+     * Seconds of construction left, in the same (power dilated) time as buildTime
+     */
+    double timeRemaining() {
+        return game.getPoweredTimers().remaining(construction);
+    }
+
+    /**
+     * Clear construction state (new match or cancelled prerequisite)
+     */
+    void reset() {
+        building = false;
+        ready = false;
+        game.getPoweredTimers().cancel(construction);
+    }
+}
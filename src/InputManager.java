@@ -7,7 +7,7 @@ import javax.swing.SwingUtilities;
  * Manages all keyboard and mouse input events.
  * 
  * Responsibilities:
- * - Key press/release handling (pause, repair, sell, show hitboxes)
+ * - Key press/release handling (pause, repair, sell, show hitboxes, quick save/load, rewind)
  * - Mouse press/release handling (UI interactions, build mode, etc.)
  * - Mouse movement tracking (position updates)
  * - Tab selection (productive/offensive)
@@ -37,22 +37,60 @@ public class InputManager {
                 break;
                 
             case KeyEvent.VK_ESCAPE:
-                if (gamma.currentState == Gamma.GameState.IN_GAME) {
+                if (gamma.rewinding) {
+                    gamma.toggleRewind(); // leave rewind first, back to the newest tick
+                } else if (gamma.currentState == Gamma.GameState.IN_GAME) {
                     gamma.currentState = Gamma.GameState.PAUSED;
                     gamma.gameRunning = false; // freeze updates
+                    gamma.getGameManager().recordPause(true);
                 } else if (gamma.currentState == Gamma.GameState.PAUSED) {
                     gamma.currentState = Gamma.GameState.IN_GAME;
                     gamma.gameRunning = true; // resume updates
-                    gamma.lastUpdateTime = System.currentTimeMillis();
+                    gamma.getGameManager().recordPause(false);
                 }
                 break;
                 
             case KeyEvent.VK_Z:
-                gamma.getBuildingManager().toggleRepairMode();
+                if (!gamma.isReplaying()) { // replays only take the recorded commands
+                    gamma.getBuildingManager().toggleRepairMode();
+                }
                 break;
                 
             case KeyEvent.VK_X:
-                gamma.getBuildingManager().toggleSellMode();
+                if (!gamma.isReplaying()) {
+                    gamma.getBuildingManager().toggleSellMode();
+                }
+                break;
+                
+            case KeyEvent.VK_R:
+                gamma.toggleRewind();
+                break;
+                
+            case KeyEvent.VK_ENTER:
+                gamma.resumeFromRewind();
+                break;
+                
+            case KeyEvent.VK_F5:
+                gamma.quickSave();
+                break;
+                
+            case KeyEvent.VK_F9:
+                gamma.quickLoad();
+                break;
+        }
+    }
+    
+    /**
+     * Handle key pressed events (keys that repeat while held: rewind scrubbing)
+     */
+    public void handleKeyPressed(KeyEvent e) {
+        int step = e.isShiftDown() ? Math.round(1 / GameLoop.FIXED_STEP) : 1; // shift = one second
+        switch (e.getKeyCode()) {
+            case KeyEvent.VK_LEFT:
+                gamma.rewindStep(-step);
+                break;
+            case KeyEvent.VK_RIGHT:
+                gamma.rewindStep(step);
                 break;
         }
     }
@@ -87,6 +125,14 @@ public class InputManager {
             return;
         }
 
+        // No commands while scrubbing through the rewind history
+        if (gamma.rewinding) {
+            return;
+        }
+
+        // Replays: clicks still reach the speed button and tabs, the command paths
+        // (construction icons, placement, sell/repair, start wave) ignore them
+
         // In-game UI interactions - tab selection
         if (gamma.mx >= 1591 && gamma.mx <= gamma.uiMid && gamma.my >= 168 && gamma.my <= 200) {
             gamma.tabSelected = "productive";
@@ -158,10 +204,6 @@ public class InputManager {
         // Not used
     }
     
-    public void handleKeyPressed(KeyEvent e) {
-        // Not used
-    }
-    
     public void handleMouseClicked(MouseEvent e) {
         // Not used
     }
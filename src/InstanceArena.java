@@ -0,0 +1,254 @@
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * The instances of a match, packed in a dense array for iteration, each
+ * owning a slot that gives it a stable int handle.
+ *
+ * A handle is the slot number plus the slot's generation. Removing an instance
+ * bumps its slot's generation, so a handle kept by a turret or a projectile
+ * resolves to null as soon as its instance is gone, even once the slot holds a
+ * new one. Removal swaps the last instance into the hole (O(1), no shifting);
+ * the update order is still deterministic, just not the order of spawning.
+ *
+ * Structural changes can be journaled (add / swap-remove with their dense
+ * index) so the rewind buffer can undo them exactly with removeLast/unremove.
+ *
+ * Responsibilities:
+ * - Add and swap-remove instances, sweep out the dead ones
+ * - Hand out handles and resolve them, stale ones to null
+ * - Journal and invert structural changes for rewinding
+ */
+public class InstanceArena extends AbstractList<Instance> implements RandomAccess {
+    public static final int NONE = -1; // handle of nothing (never added, or not saved)
+
+    private static final int SLOT_BITS = 20; // up to ~1M instances alive at once
+    private static final int SLOT_MASK = (1 << SLOT_BITS) - 1;
+    private static final int GENERATION_MASK = 0x7FF; // keeps handles positive
+
+    // Journal entry kinds
+    static final byte ADDED = 0;
+    static final byte REMOVED = 1;
+
+    private Instance[] dense = new Instance[256];
+    private int size = 0;
+
+    // Per slot
+    private int[] slotIndex = new int[256]; // dense index of the occupant, -1 = free
+    private int[] slotGeneration = new int[256];
+    private int slotCount = 0; // slots handed out so far
+    private int[] freeSlots = new int[256]; // LIFO, so undoing a change gets the same slots back
+    private int freeCount = 0;
+
+    // Journal of structural changes since the last drain
+    private boolean journaling = false;
+    private byte[] journalKinds = new byte[64];
+    private int[] journalIndex = new int[64];
+    private Instance[] journalInstances = new Instance[64];
+    private int journalSize = 0;
+
+    // ==================== LIST ====================
+
+    @Override
+    public Instance get(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + ", size " + size);
+        }
+        return dense[index];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Append an instance and give it a slot (its handle is valid from now on)
+     */
+    @Override
+    public boolean add(Instance instance) {
+        if (freeCount == 0) {
+            growSlots();
+            freeSlots[freeCount++] = slotCount++;
+        }
+        int slot = freeSlots[--freeCount];
+        if (size == dense.length) {
+            dense = Arrays.copyOf(dense, size * 2);
+        }
+        dense[size] = instance;
+        slotIndex[slot] = size;
+        instance.handle = (slotGeneration[slot] << SLOT_BITS) | slot;
+        size++;
+        journal(ADDED, size - 1, instance);
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Remove the instance at the given index, moving the last one into its place
+     */
+    public Instance swapRemove(int index) {
+        Instance removed = get(index);
+        int slot = removed.handle & SLOT_MASK;
+        Instance last = dense[size - 1];
+        dense[index] = last;
+        slotIndex[last.handle & SLOT_MASK] = index;
+        dense[--size] = null;
+        slotIndex[slot] = -1;
+        slotGeneration[slot] = (slotGeneration[slot] + 1) & GENERATION_MASK;
+        freeSlots[freeCount++] = slot;
+        journal(REMOVED, index, removed);
+        modCount++;
+        return removed;
+    }
+
+    /**
+     * Swap-remove every instance that is no longer alive
+     */
+    public void removeDead() {
+        int i = 0;
+        while (i < size) {
+            if (dense[i].isAlive()) {
+                i++;
+            } else {
+                swapRemove(i); // recheck i, the last instance moved in
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(dense, 0, size, null);
+        size = 0;
+        Arrays.fill(slotIndex, 0, slotCount, -1);
+        // Generations move on, so handles from the old match never resolve
+        for (int slot = 0; slot < slotCount; slot++) {
+            slotGeneration[slot] = (slotGeneration[slot] + 1) & GENERATION_MASK;
+        }
+        freeCount = 0;
+        for (int slot = slotCount - 1; slot >= 0; slot--) {
+            freeSlots[freeCount++] = slot; // lowest slot first
+        }
+        journalSize = 0;
+        modCount++;
+    }
+
+    private void growSlots() {
+        if (slotCount == slotIndex.length) {
+            if (slotCount > SLOT_MASK) {
+                throw new IllegalStateException("More than " + (SLOT_MASK + 1) + " instances");
+            }
+            int capacity = slotCount * 2;
+            slotIndex = Arrays.copyOf(slotIndex, capacity);
+            slotGeneration = Arrays.copyOf(slotGeneration, capacity);
+            freeSlots = Arrays.copyOf(freeSlots, capacity);
+        }
+    }
+
+    // ==================== HANDLES ====================
+
+    /**
+     * Instance behind a handle, null if it was removed since (or NONE)
+     */
+    public Instance resolve(int handle) {
+        if (handle < 0) {
+            return null;
+        }
+        int slot = handle & SLOT_MASK;
+        if (slot >= slotCount || slotGeneration[slot] != handle >>> SLOT_BITS || slotIndex[slot] < 0) {
+            return null;
+        }
+        return dense[slotIndex[slot]];
+    }
+
+    /**
+     * Whether the handle still refers to an instance in the match
+     */
+    public boolean contains(int handle) {
+        return resolve(handle) != null;
+    }
+
+    // ==================== JOURNAL ====================
+
+    /**
+     * Start or stop journaling structural changes (off by default)
+     */
+    public void setJournaling(boolean journaling) {
+        this.journaling = journaling;
+        journalSize = 0;
+    }
+
+    public int getJournalSize() {
+        return journalSize;
+    }
+
+    public byte getJournalKind(int i) {
+        return journalKinds[i];
+    }
+
+    public int getJournalIndex(int i) {
+        return journalIndex[i];
+    }
+
+    public Instance getJournalInstance(int i) {
+        return journalInstances[i];
+    }
+
+    /**
+     * Forget the journaled changes (after reading them)
+     */
+    public void clearJournal() {
+        Arrays.fill(journalInstances, 0, journalSize, null);
+        journalSize = 0;
+    }
+
+    private void journal(byte kind, int index, Instance instance) {
+        if (!journaling) {
+            return;
+        }
+        if (journalSize == journalKinds.length) {
+            int capacity = journalSize * 2;
+            journalKinds = Arrays.copyOf(journalKinds, capacity);
+            journalIndex = Arrays.copyOf(journalIndex, capacity);
+            journalInstances = Arrays.copyOf(journalInstances, capacity);
+        }
+        journalKinds[journalSize] = kind;
+        journalIndex[journalSize] = index;
+        journalInstances[journalSize] = instance;
+        journalSize++;
+    }
+
+    /**
+     * Undo the most recent add (the instance is last and its slot on top of the free stack)
+     */
+    public Instance removeLast() {
+        Instance removed = dense[--size];
+        dense[size] = null;
+        int slot = removed.handle & SLOT_MASK;
+        slotIndex[slot] = -1;
+        freeSlots[freeCount++] = slot;
+        modCount++;
+        return removed;
+    }
+
+    /**
+     * Undo the most recent swapRemove(index) of the given instance
+     */
+    public void unremove(int index, Instance instance) {
+        int slot = freeSlots[--freeCount];
+        slotGeneration[slot] = (slotGeneration[slot] - 1) & GENERATION_MASK;
+        if (size == dense.length) {
+            dense = Arrays.copyOf(dense, size * 2);
+        }
+        if (index < size) {
+            Instance moved = dense[index]; // was the last one before the removal
+            dense[size] = moved;
+            slotIndex[moved.handle & SLOT_MASK] = size;
+        }
+        dense[index] = instance;
+        slotIndex[slot] = index;
+        size++;
+        modCount++;
+    }
+}
@@ -6,6 +6,7 @@ import java.awt.Color;
 /**
  * Manages map state. Converts Location from static class to instance-based.
  * Each game can have its own map instance with independent state.
+ * Concrete maps (PlainMap, OuterSpaceMap) lay out the path in their constructor.
  */
 public class MapManager {
     public static final int CELL_SIZE = 40;
@@ -14,18 +15,22 @@ public class MapManager {
     
     private ArrayList<Point> occupancy;          // occupied cells for path and obstacles
     private HashMap<Point, Building> buildingOccupancy; // buildings at positions
-    private ArrayList<Point> adjacency;          // buildable cells
+    private int buildingVersion = 0; // bumped whenever buildingOccupancy changes (range tables)
+    private ArrayList<Point> adjacency;          // buildable cells, in the order they were added
+    private PlacementMap placement;              // the same cells as flags, for placement queries
     private ArrayList<Point> path;               // enemy path
     
     private Color backgroundColor;
     private Color pathColor;
     private Point startPoint;                    // where enemies spawn
+    private Point headquarterPoint = new Point(1, 1); // top-left cell of the starting Headquarter
     
     public MapManager() {
         this.occupancy = new ArrayList<>();
         this.buildingOccupancy = new HashMap<>();
         this.adjacency = new ArrayList<>();
         this.path = new ArrayList<>();
+        this.placement = new PlacementMap(COLS, ROWS);
     }
     
     // ==================== GETTERS ====================
@@ -38,10 +43,27 @@ public class MapManager {
         return buildingOccupancy;
     }
     
+    /**
+     * Changes every time a building cell is added or removed
+     */
+    public int getBuildingVersion() {
+        return buildingVersion;
+    }
+    
+    /**
+     * Buildable cells in the order they were added (read only, see addAdjacentCell)
+     */
     public ArrayList<Point> getAdjacency() {
         return adjacency;
     }
     
+    /**
+     * Terrain, building and adjacency flags with constant-time placement queries
+     */
+    public PlacementMap getPlacement() {
+        return placement;
+    }
+    
     public ArrayList<Point> getPath() {
         return path;
     }
@@ -58,6 +80,10 @@ public class MapManager {
         return startPoint;
     }
     
+    public Point getHeadquarterPoint() {
+        return headquarterPoint;
+    }
+    
     // ==================== SETTERS ====================
     
     public void setBackgroundColor(Color color) {
@@ -72,10 +98,51 @@ public class MapManager {
         this.startPoint = point;
     }
     
+    public void setHeadquarterPoint(Point point) {
+        this.headquarterPoint = point;
+    }
+    
+    /**
+     * Mark a cell as occupied by a building
+     */
+    public void putBuildingCell(Point cell, Building building) {
+        buildingOccupancy.put(cell, building);
+        placement.setBuilding(cell.x, cell.y, true);
+        buildingVersion++;
+    }
+    
+    /**
+     * Free a cell occupied by a building
+     */
+    public void removeBuildingCell(Point cell) {
+        buildingOccupancy.remove(cell);
+        placement.setBuilding(cell.x, cell.y, false);
+        buildingVersion++;
+    }
+    
+    /**
+     * Mark a cell as buildable (within a building's build range); already buildable cells are skipped
+     */
+    public void addAdjacentCell(int x, int y) {
+        if (!placement.isAdjacent(x, y)) {
+            adjacency.add(new Point(x, y));
+            placement.setAdjacent(x, y, true);
+        }
+    }
+    
+    /**
+     * No buildable cells (before rebuilding them from the remaining buildings)
+     */
+    public void clearAdjacency() {
+        adjacency.clear();
+        placement.clearAdjacent();
+    }
+    
     // ==================== PATH BUILDING ====================
     
     /**
-     * Add a line segment to the enemy path
+     * Add a line segment to the enemy path, walking from (x1, y1) to (x2, y2)
+     * so the path keeps the order enemies travel in. Path cells are also occupied.
      */
     public void mapPath(int x1, int y1, int x2, int y2) {
         // Only create path if line is horizontal or vertical
@@ -86,26 +153,26 @@ public class MapManager {
         // add points to path
         if (x1 == x2) {
             // Vertical line
-            int min = Math.min(y1, y2);
-            int max = Math.max(y1, y2);
-            for (int y = min; y <= max; y++) {
-                Point p = new Point(x1, y);
-                if (!path.contains(p)) {
-                    path.add(p);
-                }
+            int step = y1 > y2 ? -1 : 1;
+            for (int y = y1; y != y2 + step; y += step) {
+                addPathCell(x1, y);
             }
         } else {
             // Horizontal line
-            int min = Math.min(x1, x2);
-            int max = Math.max(x1, x2);
-            for (int x = min; x <= max; x++) {
-                Point p = new Point(x, y1);
-                if (!path.contains(p)) {
-                    path.add(p);
-                }
+            int step = x1 > x2 ? -1 : 1;
+            for (int x = x1; x != x2 + step; x += step) {
+                addPathCell(x, y1);
             }
         }
     }
+    
+    private void addPathCell(int x, int y) {
+        if (!pathExists(x, y)) {
+            path.add(new Point(x, y));
+            occupancy.add(new Point(x, y));
+            placement.setTerrain(x, y, true);
+        }
+    }
 
     /**
      * Check if a point is on the path
@@ -124,7 +191,9 @@ public class MapManager {
     public void clear() {
         occupancy.clear();
         buildingOccupancy.clear();
+        buildingVersion++;
         adjacency.clear();
         path.clear();
+        placement.clear();
     }
 }
@@ -0,0 +1,503 @@
+import java.awt.Point;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * Versioned binary snapshot of a whole match (save game).
+ * Written and read through a FileChannel from one reusable direct buffer, so a
+ * late-game save is a few hundred KB of plain puts and takes milliseconds.
+ *
+ * Format (big endian), version 4:
+ *   int magic "BCS1", int version
+ *   long seed, string map, string mode, long root RNG state
+ *   double sim time, long ticks, per timer wheel (normal, powered): long time, long next sequence
+ *   int kromer, int wave (power is not saved, the Economy adds it up from the placed buildings)
+ *   icons: int count, per icon: byte building, byte ready, timer;
+ *          byte productive under construction, byte offensive under construction
+ *   WaveManager progress (WaveManager.save)
+ *   damage per weapon: int count, per entry: string weapon, long damage
+ *   instance table: int live, int detached, int placeholder Empty position (-1 = none), then per entry:
+ *     byte KIND_BUILDING/KIND_ENEMY, string class, int x, int y
+ *     byte KIND_PROJECTILE, string type, byte targeting, int owner id, int weapon index
+ *   instance state, per entry in table order: byte alive, then the rest (Instance.save and overrides)
+ *   building occupancy: int count, per cell: int x, int y, int building id
+ *   adjacency: int count, per cell: int x, int y
+ *   income: int count, per producing building: int building id, timer
+ * string = short byte length + UTF-8 bytes; timer = long due (-1 = not scheduled), long sequence.
+ * Component timers are wheel times too: absolute, on the wheel of their owner.
+ *
+ * Ids are positions in the instance table. Live entries are the match's
+ * instances in update order (Empty explosion holders are visual only and left
+ * out). Detached entries are dead shooters whose projectiles are still flying;
+ * they are rebuilt so those projectiles keep their weapon, but never added to
+ * the match.
+ *
+ * Responsibilities:
+ * - Save: header, economy, waves, construction, instances and map state,
+ *   split into capture (sim thread) and write (any thread, see Autosaver)
+ * - Load: rebuild the instances through their normal constructors, then
+ *   overwrite their state, references and RNG streams
+ */
+public class MatchSnapshot {
+    private static final int MAGIC = 0x42435331; // "BCS1"
+    static final int VERSION = 4;
+    private static final int INITIAL_CAPACITY = 256 * 1024;
+
+    private static final byte KIND_BUILDING = 1;
+    private static final byte KIND_ENEMY = 2;
+    private static final byte KIND_PROJECTILE = 3;
+
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(INITIAL_CAPACITY);
+
+    // Id mapping of the save/load in progress
+    private final IdentityHashMap<Instance, Integer> ids = new IdentityHashMap<>();
+    private final ArrayList<Instance> byId = new ArrayList<>();
+
+    // ==================== SAVE ====================
+
+    /**
+     * Write the match to a file (capture and write in one go)
+     */
+    public void save(GameManager game, Path path) throws IOException {
+        write(capture(game), path, false);
+    }
+
+    /**
+     * Encode the match into this snapshot's buffer; call at a tick boundary.
+     * Only primitive state is copied, so this takes microseconds and the
+     * returned buffer no longer depends on the match. It stays valid until the
+     * next capture/load on this snapshot.
+     */
+    public ByteBuffer capture(GameManager game) {
+        while (true) {
+            buffer.clear();
+            try {
+                encode(game);
+                break;
+            } catch (BufferOverflowException e) {
+                buffer = ByteBuffer.allocateDirect(buffer.capacity() * 2); // grow and encode again
+            } finally {
+                ids.clear();
+                byId.clear();
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Write captured bytes to a file. The file is replaced only once it is
+     * complete, so a crash never leaves a half-written save behind; durable
+     * also forces the bytes to disk before the replace. Safe to call from any
+     * thread as long as nothing captures into the same buffer meanwhile.
+     */
+    public static void write(ByteBuffer data, Path path, boolean durable) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (data.hasRemaining()) {
+                channel.write(data);
+            }
+            if (durable) {
+                channel.force(true);
+            }
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void encode(GameManager game) {
+        ByteBuffer buf = buffer;
+        buf.putInt(MAGIC).putInt(VERSION);
+        buf.putLong(game.getSeed());
+        putString(game.getMapName());
+        putString(game.getMode());
+        buf.putLong(game.getRandom().getState());
+        buf.putDouble(game.getClock().now()).putLong(game.getClock().getTicks());
+        for (TimerWheel wheel : wheels(game)) {
+            buf.putLong(wheel.now()).putLong(wheel.getNextSeq());
+        }
+        buf.putInt(game.getKromer()).putInt(game.getWave());
+
+        // Construction
+        List<Icon> icons = allIcons(game);
+        buf.putInt(icons.size());
+        for (Icon icon : icons) {
+            putBoolean(icon.building);
+            putBoolean(icon.ready);
+            putTimer(icon.construction);
+        }
+        putBoolean(game.isConstructing("productive"));
+        putBoolean(game.isConstructing("offensive"));
+
+        game.getWaveManager().save(this);
+
+        buf.putInt(game.getDamageByWeapon().size());
+        for (HashMap.Entry<String, Long> e : game.getDamageByWeapon().entrySet()) {
+            putString(e.getKey());
+            buf.putLong(e.getValue());
+        }
+
+        // Instance table: live instances first, then shooters that died with projectiles in flight
+        int placeholder = -1; // position of the placeholder Empty among the live instances
+        for (Instance instance : game.getInstances()) {
+            if (!(instance instanceof Empty)) {
+                assignId(instance);
+            } else if (placeholder < 0) {
+                placeholder = byId.size();
+            }
+        }
+        int live = byId.size();
+        for (int i = 0; i < live; i++) {
+            if (byId.get(i) instanceof Projectile) {
+                Instance owner = ((Projectile) byId.get(i)).iParent;
+                if (!ids.containsKey(owner)) {
+                    assignId(owner);
+                }
+            }
+        }
+        buf.putInt(live).putInt(byId.size() - live).putInt(placeholder);
+        for (Instance instance : byId) {
+            if (instance instanceof Projectile) {
+                Projectile p = (Projectile) instance;
+                buf.put(KIND_PROJECTILE);
+                putString(p.projectileType);
+                putBoolean(p.isTargeting);
+                buf.putInt(idOf(p.iParent));
+                buf.putInt(p.iParent.weapons.indexOf(p.parent));
+            } else {
+                buf.put(instance instanceof Building ? KIND_BUILDING : KIND_ENEMY);
+                putString(instance.getClass().getName());
+                buf.putInt(instance.x).putInt(instance.y);
+            }
+        }
+        for (Instance instance : byId) {
+            instance.save(this);
+        }
+
+        // Map state derived from the buildings, kept in its exact order
+        MapManager map = game.getMap();
+        buf.putInt(map.getBuildingOccupancy().size());
+        for (HashMap.Entry<Point, Building> e : map.getBuildingOccupancy().entrySet()) {
+            buf.putInt(e.getKey().x).putInt(e.getKey().y).putInt(idOf(e.getValue()));
+        }
+        buf.putInt(map.getAdjacency().size());
+        for (Point p : map.getAdjacency()) {
+            buf.putInt(p.x).putInt(p.y);
+        }
+
+        // Income timers of the producing buildings
+        Economy economy = game.getEconomy();
+        int countAt = buf.position();
+        int producers = 0;
+        buf.putInt(0);
+        for (int i = 0; i < live; i++) {
+            TimerWheel.Timer income = byId.get(i) instanceof Building
+                    ? economy.incomeTimer((Building) byId.get(i)) : null;
+            if (income != null) {
+                buf.putInt(i);
+                putTimer(income);
+                producers++;
+            }
+        }
+        buf.putInt(countAt, producers);
+    }
+
+    private void assignId(Instance instance) {
+        ids.put(instance, byId.size());
+        byId.add(instance);
+    }
+
+    // ==================== LOAD ====================
+
+    /**
+     * Replace the match with the one saved in the file.
+     * Throws IOException if the file is not a snapshot of a supported version
+     * or does not fit the loaded configs; the match is unusable in that case
+     * and should be reset.
+     */
+    public void load(GameManager game, Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException(path + " is too large for a snapshot");
+            }
+            ensureCapacity((int) size);
+            buffer.clear().limit((int) size);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    break; // file shrank while reading, the parse below reports it
+                }
+            }
+        }
+        buffer.flip();
+        parse(game, path.toString());
+    }
+
+    /**
+     * Replace the match with one captured earlier (see capture), e.g. a
+     * rewind keyframe
+     */
+    public void load(GameManager game, byte[] data) throws IOException {
+        ensureCapacity(data.length);
+        buffer.clear();
+        buffer.put(data).flip();
+        parse(game, "in-memory snapshot");
+    }
+
+    private void ensureCapacity(int size) {
+        if (buffer.capacity() < size) {
+            buffer = ByteBuffer.allocateDirect(size);
+        }
+    }
+
+    private void parse(GameManager game, String source) throws IOException {
+        try {
+            if (buffer.remaining() < 8 || buffer.getInt() != MAGIC) {
+                throw new IOException(source + " is not a snapshot");
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException(source + " has unsupported snapshot version " + version);
+            }
+            decode(game);
+        } catch (BufferUnderflowException | IllegalStateException | ClassCastException
+                | ReflectiveOperationException e) {
+            throw new IOException("Corrupt snapshot " + source, e);
+        } finally {
+            ids.clear();
+            byId.clear();
+        }
+    }
+
+    private void decode(GameManager game) throws ReflectiveOperationException {
+        ByteBuffer buf = buffer;
+        game.setSeed(buf.getLong());
+        String mapName = getString();
+        String mode = getString();
+        game.startEmptyMatch(mapName, mode);
+        long rngState = buf.getLong();
+        double time = buf.getDouble();
+        long ticks = buf.getLong();
+        game.getClock().restore(time, ticks);
+        for (TimerWheel wheel : wheels(game)) {
+            wheel.restore(buf.getLong(), buf.getLong());
+        }
+        game.getEconomy().setKromer(buf.getInt());
+        game.setWave(buf.getInt());
+
+        List<Icon> icons = allIcons(game);
+        int iconCount = buf.getInt();
+        if (iconCount != icons.size()) {
+            throw new IllegalStateException("Snapshot has " + iconCount + " build entries, configs have " + icons.size());
+        }
+        for (Icon icon : icons) {
+            icon.building = getBoolean();
+            icon.ready = getBoolean();
+            getTimer(game.getPoweredTimers(), icon.construction);
+        }
+        game.setConstructing("productive", getBoolean());
+        game.setConstructing("offensive", getBoolean());
+
+        game.getWaveManager().load(this);
+
+        int damageEntries = buf.getInt();
+        for (int i = 0; i < damageEntries; i++) {
+            game.getDamageByWeapon().put(getString(), buf.getLong());
+        }
+
+        // Rebuild the instances: shooters first, projectiles once their weapons exist
+        int live = buf.getInt();
+        int total = live + buf.getInt();
+        int placeholder = buf.getInt();
+        if (placeholder > live) {
+            throw new IllegalStateException("Bad placeholder position " + placeholder);
+        }
+        byte[] kinds = new byte[total];
+        int[] table = new int[total * 2]; // cell (x, y), or owner id and weapon index
+        String[] names = new String[total];
+        boolean[] targeting = new boolean[total];
+        for (int i = 0; i < total; i++) {
+            kinds[i] = buf.get();
+            names[i] = getString();
+            if (kinds[i] == KIND_PROJECTILE) {
+                targeting[i] = getBoolean();
+            }
+            table[2 * i] = buf.getInt();
+            table[2 * i + 1] = buf.getInt();
+            byId.add(null);
+        }
+        for (int i = 0; i < total; i++) {
+            if (kinds[i] == KIND_BUILDING || kinds[i] == KIND_ENEMY) {
+                Class<? extends Instance> base = kinds[i] == KIND_BUILDING ? Building.class : Enemy.class;
+                Class<? extends Instance> type = Class.forName(names[i]).asSubclass(base);
+                byId.set(i, type.getDeclaredConstructor(GameManager.class, int.class, int.class)
+                        .newInstance(game, table[2 * i], table[2 * i + 1]));
+            } else if (kinds[i] != KIND_PROJECTILE) {
+                throw new IllegalStateException("Unknown instance kind " + kinds[i]);
+            }
+        }
+        for (int i = 0; i < total; i++) {
+            if (kinds[i] == KIND_PROJECTILE) {
+                Weapon weapon = instanceAt(table[2 * i]).weapons.get(table[2 * i + 1]);
+                byId.set(i, new Projectile(names[i], weapon, targeting[i]));
+            }
+        }
+
+        // Into the match in saved order, so handles exist before the state refers to them
+        InstanceArena instances = game.getInstances();
+        instances.clear();
+        for (int i = 0; i < live; i++) {
+            if (i == placeholder) {
+                instances.add(new Empty(game));
+            }
+            instances.add(byId.get(i));
+        }
+        if (placeholder == live) {
+            instances.add(new Empty(game));
+        }
+
+        // State last: it overwrites everything the constructors set up, RNG streams included
+        for (int i = 0; i < total; i++) {
+            byId.get(i).load(this); // detached shooters come back dead, only kept for their projectiles
+        }
+
+        MapManager map = game.getMap();
+        int occupied = buf.getInt();
+        for (int i = 0; i < occupied; i++) {
+            Point cell = new Point(buf.getInt(), buf.getInt());
+            map.putBuildingCell(cell, (Building) instanceAt(buf.getInt()));
+        }
+        int adjacent = buf.getInt();
+        for (int i = 0; i < adjacent; i++) {
+            map.addAdjacentCell(buf.getInt(), buf.getInt());
+        }
+
+        // The placed buildings are the ones on the map; count them in table order
+        Economy economy = game.getEconomy();
+        IdentityHashMap<Building, Boolean> placed = new IdentityHashMap<>();
+        for (Building building : map.getBuildingOccupancy().values()) {
+            placed.put(building, Boolean.TRUE);
+        }
+        for (int i = 0; i < live; i++) {
+            if (byId.get(i) instanceof Building && placed.containsKey(byId.get(i))) {
+                game.buildingRestored((Building) byId.get(i));
+            }
+        }
+        int producers = buf.getInt();
+        for (int i = 0; i < producers; i++) {
+            Building building = (Building) instanceAt(buf.getInt());
+            TimerWheel.Timer income = economy.incomeTimer(building);
+            if (income == null) {
+                throw new IllegalStateException("Snapshot pays income to " + building.getClass().getName());
+            }
+            getTimer(game.getTimers(), income);
+        }
+
+        // Constructors drew RNG streams, restore the saved state
+        game.getRandom().setState(rngState);
+    }
+
+    // ==================== ENCODING HELPERS ====================
+
+    /**
+     * Buffer of the save/load in progress
+     */
+    ByteBuffer buffer() {
+        return buffer;
+    }
+
+    /**
+     * Id of an instance in this snapshot, -1 for null or instances that are not saved
+     */
+    int idOf(Instance instance) {
+        Integer id = instance != null ? ids.get(instance) : null;
+        return id != null ? id : -1;
+    }
+
+    /**
+     * Instance with the given id, null for -1
+     */
+    Instance instanceAt(int id) {
+        if (id < -1 || id >= byId.size()) {
+            throw new IllegalStateException("Bad instance id " + id);
+        }
+        return id < 0 ? null : byId.get(id);
+    }
+
+    /**
+     * Handle of the instance with the given id, NONE for -1 or instances not in the match
+     */
+    int handleAt(int id) {
+        Instance instance = instanceAt(id);
+        return instance != null ? instance.handle : InstanceArena.NONE;
+    }
+
+    void putBoolean(boolean value) {
+        buffer.put((byte) (value ? 1 : 0));
+    }
+
+    boolean getBoolean() {
+        return buffer.get() != 0;
+    }
+
+    void putString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putShort((short) bytes.length).put(bytes);
+    }
+
+    String getString() {
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * A timer as its wheel time and sequence (-1 = not scheduled)
+     */
+    void putTimer(TimerWheel.Timer timer) {
+        buffer.putLong(timer.isScheduled() ? timer.getDue() : -1).putLong(timer.getSeq());
+    }
+
+    void getTimer(TimerWheel wheel, TimerWheel.Timer timer) {
+        long due = buffer.getLong();
+        long seq = buffer.getLong();
+        wheel.cancel(timer);
+        if (due >= 0) {
+            wheel.scheduleAt(timer, due, seq);
+        }
+    }
+
+    void putRandom(SimRandom random) {
+        buffer.putLong(random.getState());
+    }
+
+    void getRandom(SimRandom random) {
+        random.setState(buffer.getLong());
+    }
+
+    private static TimerWheel[] wheels(GameManager game) {
+        return new TimerWheel[] { game.getTimers(), game.getPoweredTimers() };
+    }
+
+    // Build menu entries in index order (see GameManager.getIconIndex)
+    private static List<Icon> allIcons(GameManager game) {
+        List<Icon> icons = new ArrayList<>(game.getProductiveIcons());
+        icons.addAll(game.getOffensiveIcons());
+        return icons;
+    }
+}
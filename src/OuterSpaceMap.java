@@ -0,0 +1,31 @@
+import java.awt.Point;
+import java.awt.Color;
+
+/**
+ * Outer Space map implementation.
+ * Replaces the OuterSpace extends Location pattern.
+ */
+public final class OuterSpaceMap extends MapManager {
+    public OuterSpaceMap() {
+        super();
+        
+        // Set colors
+        setBackgroundColor(new Color(0, 0, 0));
+        setPathColor(new Color(255, 255, 255));
+        
+        // Set spawn point and starting base
+        setStartPoint(new Point(-5, 25));
+        setHeadquarterPoint(new Point(20, 10));
+        
+        // Build the path
+        mapPath(0, 25, 37, 25);
+        mapPath(37, 25, 37, 1);
+        mapPath(37, 1, 1, 1);
+        mapPath(1, 1, 1, 20);
+        mapPath(1, 20, 34, 20);
+        mapPath(34, 20, 34, 4);
+        mapPath(34, 4, 11, 4);
+        mapPath(11, 4, 11, 11);
+        mapPath(11, 11, 19, 11);
+    }
+}
@@ -0,0 +1,164 @@
+import java.awt.Polygon;
+import java.util.Arrays;
+
+/**
+ * Finds the instance under the mouse for hover info, through a grid of the
+ * cells each instance's hitboxes cover.
+ *
+ * The grid is rebuilt only when the world changed (a tick ran, the rewind
+ * view moved, an instance or building was added or removed) and a pick is
+ * asked for; a pick then only tests the few instances listed in the
+ * cursor's cell against their exact (rotated) hitboxes. The answer is kept
+ * until the mouse moves or the world changes. The grid keeps the instances
+ * in update order, so the pick is the same as testing all of them in order.
+ *
+ * Responsibilities:
+ * - Index the living instances by the cells their hitboxes cover
+ * - Pick the first instance whose hitbox contains a point
+ * - Cache the pick between frames
+ */
+public class Picker {
+    private static final int COLS = MapManager.COLS;
+    private static final int ROWS = MapManager.ROWS;
+
+    // Grid in compressed rows: instances of cell c are entries[start[c] .. start[c + 1])
+    private final int[] start = new int[COLS * ROWS + 1];
+    private Instance[] entries = new Instance[256];
+
+    // World the grid was built from
+    private GameManager builtGame;
+    private long builtTick = -1;
+    private long builtViewTick = -1;
+    private int builtCount = -1;
+    private int builtBuildingVersion = -1;
+
+    // Last pick
+    private int pickX = Integer.MIN_VALUE, pickY = Integer.MIN_VALUE;
+    private Instance picked;
+
+    private final Polygon quad = new Polygon(); // reused for hitbox tests
+
+    /**
+     * Living instance whose hitbox contains the point (pixels), first in update order; null if none
+     */
+    public Instance pick(GameManager game, int x, int y) {
+        boolean stale = worldChanged(game);
+        if (!stale && x == pickX && y == pickY) {
+            return picked;
+        }
+        if (stale) {
+            rebuild(game);
+        }
+        pickX = x;
+        pickY = y;
+        picked = find(x, y);
+        return picked;
+    }
+
+    private Instance find(int x, int y) {
+        int cellX = Math.floorDiv(x, Location.cellSize);
+        int cellY = Math.floorDiv(y, Location.cellSize);
+        if (cellX < 0 || cellY < 0 || cellX >= COLS || cellY >= ROWS) {
+            return null;
+        }
+        int cell = cellY * COLS + cellX;
+        for (int i = start[cell]; i < start[cell + 1]; i++) {
+            Instance instance = entries[i];
+            if (!instance.isAlive()) {
+                continue;
+            }
+            for (Hitbox hitbox : instance.hitboxes) {
+                if (outline(hitbox, quad).contains(x, y)) {
+                    return instance;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The hitbox's corners as a polygon, reusing the given one
+     */
+    public static Polygon outline(Hitbox hitbox, Polygon polygon) {
+        polygon.reset();
+        for (int i = 0; i < hitbox.corners.size(); i++) {
+            polygon.addPoint(hitbox.corners.get(i).x, hitbox.corners.get(i).y);
+        }
+        return polygon;
+    }
+
+    // ==================== GRID ====================
+
+    private boolean worldChanged(GameManager game) {
+        RewindBuffer rewind = game.getRewind();
+        long viewTick = rewind != null && rewind.isScrubbing() ? rewind.getViewTick() : -1;
+        return game != builtGame || game.getClock().getTicks() != builtTick || viewTick != builtViewTick
+                || game.getInstances().size() != builtCount
+                || game.getMap().getBuildingVersion() != builtBuildingVersion;
+    }
+
+    private void rebuild(GameManager game) {
+        InstanceArena instances = game.getInstances();
+        // Count the entries per cell, then place them in update order
+        Arrays.fill(start, 0);
+        for (int i = 0; i < instances.size(); i++) {
+            visit(instances.get(i), false);
+        }
+        int total = 0;
+        for (int cell = 0; cell < COLS * ROWS; cell++) {
+            int count = start[cell];
+            start[cell] = total;
+            total += count;
+        }
+        start[COLS * ROWS] = total;
+        if (entries.length < total) {
+            entries = new Instance[Math.max(total, entries.length * 2)];
+        } else {
+            Arrays.fill(entries, total, entries.length, null);
+        }
+        for (int i = 0; i < instances.size(); i++) {
+            visit(instances.get(i), true);
+        }
+        // start[cell] now points past its entries, shift back
+        System.arraycopy(start, 0, start, 1, COLS * ROWS);
+        start[0] = 0;
+
+        RewindBuffer rewind = game.getRewind();
+        builtGame = game;
+        builtTick = game.getClock().getTicks();
+        builtViewTick = rewind != null && rewind.isScrubbing() ? rewind.getViewTick() : -1;
+        builtCount = instances.size();
+        builtBuildingVersion = game.getMap().getBuildingVersion();
+        pickX = Integer.MIN_VALUE; // forget the last pick
+    }
+
+    // Count (place = false) or place the instance in every cell its hitboxes' bounds cover
+    private void visit(Instance instance, boolean place) {
+        if (!instance.isAlive() || instance.hitboxes.isEmpty()) {
+            return;
+        }
+        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+        for (Hitbox hitbox : instance.hitboxes) {
+            for (int i = 0; i < hitbox.corners.size(); i++) {
+                minX = Math.min(minX, hitbox.corners.get(i).x);
+                minY = Math.min(minY, hitbox.corners.get(i).y);
+                maxX = Math.max(maxX, hitbox.corners.get(i).x);
+                maxY = Math.max(maxY, hitbox.corners.get(i).y);
+            }
+        }
+        int fromX = Math.max(0, Math.floorDiv(minX, Location.cellSize));
+        int fromY = Math.max(0, Math.floorDiv(minY, Location.cellSize));
+        int toX = Math.min(COLS - 1, Math.floorDiv(maxX, Location.cellSize));
+        int toY = Math.min(ROWS - 1, Math.floorDiv(maxY, Location.cellSize));
+        for (int cy = fromY; cy <= toY; cy++) {
+            for (int cx = fromX; cx <= toX; cx++) {
+                int cell = cy * COLS + cx;
+                if (place) {
+                    entries[start[cell]++] = instance;
+                } else {
+                    start[cell]++;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,143 @@
+import java.util.Arrays;
+
+/**
+ * Grid of what blocks building placement, with summed-area tables so
+ * "can a w x h building go at (x, y)" is four array reads for any size.
+ *
+ * Every cell has flags: terrain (path and obstacles), building, and adjacent
+ * (inside some building's build range). Two tables count the cells that
+ * block a footprint: one for unrestricted placement (terrain or building)
+ * and one for placement next to the base (also every cell that is not
+ * adjacent). Entry (x, y) of a table is the count over all cells left of x
+ * and above y, so a rectangle's count comes from its four corners.
+ *
+ * Changes only mark the first row they touch; the tables are brought up to
+ * date from that row down on the next query, so placing a building costs a
+ * partial rebuild once, however many cells it covers.
+ *
+ * Responsibilities:
+ * - Keep the per-cell terrain, building and adjacency flags
+ * - Answer placement queries for any footprint in constant time
+ */
+public class PlacementMap {
+    private static final byte TERRAIN = 1;
+    private static final byte BUILDING = 2;
+    private static final byte ADJACENT = 4;
+
+    private final int cols, rows;
+    private final byte[] cells; // flags by y * cols + x
+    private final int[] blocked; // summed-area table of terrain or building, (rows + 1) x (cols + 1)
+    private final int[] restricted; // same, also counting cells that are not adjacent
+    private int dirtyFrom; // first row whose table entries are out of date (rows = all up to date)
+
+    public PlacementMap(int cols, int rows) {
+        this.cols = cols;
+        this.rows = rows;
+        this.cells = new byte[cols * rows];
+        this.blocked = new int[(cols + 1) * (rows + 1)];
+        this.restricted = new int[(cols + 1) * (rows + 1)];
+        this.dirtyFrom = 0;
+    }
+
+    // ==================== CELLS ====================
+
+    public void setTerrain(int x, int y, boolean on) {
+        set(x, y, TERRAIN, on);
+    }
+
+    public void setBuilding(int x, int y, boolean on) {
+        set(x, y, BUILDING, on);
+    }
+
+    public void setAdjacent(int x, int y, boolean on) {
+        set(x, y, ADJACENT, on);
+    }
+
+    public boolean isAdjacent(int x, int y) {
+        return inBounds(x, y) && (cells[y * cols + x] & ADJACENT) != 0;
+    }
+
+    /**
+     * Whether terrain or a building is on the cell
+     */
+    public boolean isBlocked(int x, int y) {
+        return inBounds(x, y) && (cells[y * cols + x] & (TERRAIN | BUILDING)) != 0;
+    }
+
+    private void set(int x, int y, byte flag, boolean on) {
+        if (!inBounds(x, y)) {
+            return; // e.g. a path starting off the map
+        }
+        int i = y * cols + x;
+        byte value = (byte) (on ? cells[i] | flag : cells[i] & ~flag);
+        if (value != cells[i]) {
+            cells[i] = value;
+            dirtyFrom = Math.min(dirtyFrom, y);
+        }
+    }
+
+    /**
+     * Drop all adjacency (it is rebuilt from the remaining buildings)
+     */
+    public void clearAdjacent() {
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] &= ~ADJACENT;
+        }
+        dirtyFrom = 0;
+    }
+
+    /**
+     * Empty map
+     */
+    public void clear() {
+        Arrays.fill(cells, (byte) 0);
+        dirtyFrom = 0;
+    }
+
+    private boolean inBounds(int x, int y) {
+        return x >= 0 && y >= 0 && x < cols && y < rows;
+    }
+
+    // ==================== QUERIES ====================
+
+    /**
+     * Whether a width x height building fits with its top-left cell at (x, y):
+     * inside the map, off the terrain and other buildings and, if restricted,
+     * entirely within build range of the base
+     */
+    public boolean canPlace(int x, int y, int width, int height, boolean restricted) {
+        if (x < 0 || y < 0 || x + width > cols || y + height > rows) {
+            return false;
+        }
+        update();
+        return sum(restricted ? this.restricted : blocked, x, y, x + width, y + height) == 0;
+    }
+
+    // Blocking cells in [x0, x1) x [y0, y1)
+    private int sum(int[] table, int x0, int y0, int x1, int y1) {
+        int stride = cols + 1;
+        return table[y1 * stride + x1] - table[y0 * stride + x1] - table[y1 * stride + x0] + table[y0 * stride + x0];
+    }
+
+    // Bring the tables up to date from the first changed row down
+    private void update() {
+        if (dirtyFrom >= rows) {
+            return;
+        }
+        int stride = cols + 1;
+        for (int y = dirtyFrom; y < rows; y++) {
+            int blockedRow = 0;
+            int restrictedRow = 0;
+            for (int x = 0; x < cols; x++) {
+                byte flags = cells[y * cols + x];
+                boolean taken = (flags & (TERRAIN | BUILDING)) != 0;
+                blockedRow += taken ? 1 : 0;
+                restrictedRow += taken || (flags & ADJACENT) == 0 ? 1 : 0;
+                int above = y * stride + x + 1;
+                blocked[above + stride] = blocked[above] + blockedRow;
+                restricted[above + stride] = restricted[above] + restrictedRow;
+            }
+        }
+        dirtyFrom = rows;
+    }
+}
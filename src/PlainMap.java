@@ -5,7 +5,7 @@ import java.awt.Color;
  * Plain map implementation.
  * Replaces the Plain extends Location pattern.
  */
-public class PlainMap extends MapManager {
+public final class PlainMap extends MapManager {
     public PlainMap() {
         super();
         
@@ -13,8 +13,9 @@ public class PlainMap extends MapManager {
         setBackgroundColor(new Color(34, 139, 34));
         setPathColor(new Color(50, 175, 50));
         
-        // Set spawn point
+        // Set spawn point and starting base
         setStartPoint(new Point(43, 13));
+        setHeadquarterPoint(new Point(1, 1));
         
         // Build the path
         mapPath(38, 13, 32, 13);
@@ -0,0 +1,91 @@
+import java.awt.Point;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Which stretches of the enemy path are occupied, so building turrets with
+ * nothing in range can sleep instead of scanning every instance each tick.
+ *
+ * Enemies only ever walk the path: one with pathIndex i is on the segment
+ * from path point i to point i + 1 (-1 = from the start point to point 0), as
+ * Enemy.update snaps to every corner. A turret registers the segments that
+ * come within its range (plus a cell of slack) as a bit set; if none of them
+ * holds an enemy, findEnemy could not find one, so skipping it is exact.
+ *
+ * Responsibilities:
+ * - Rebuild the occupied segments once per tick from the live enemies
+ * - Compute the segment set (zone) covered by a range circle
+ * - Tell whether any segment of a zone is occupied
+ */
+public class RangeZones {
+    private static final double SLACK = Location.cellSize; // pixels added to every range
+
+    private final GameManager game;
+    private long[] occupied = new long[2]; // bit pathIndex + 1 set = an enemy is on that segment
+
+    public RangeZones(GameManager game) {
+        this.game = game;
+    }
+
+    /**
+     * Mark the segments the enemies are on. Call once per tick before the sense phase.
+     */
+    public void update(List<Instance> instances) {
+        int segments = game.getMap().getPath().size() + 1;
+        if (occupied.length * 64 < segments) {
+            occupied = new long[(segments + 63) / 64];
+        } else {
+            Arrays.fill(occupied, 0);
+        }
+        for (int i = 0; i < instances.size(); i++) {
+            Instance instance = instances.get(i);
+            if (instance instanceof Enemy && instance.isAlive()) {
+                int bit = Math.max(0, Math.min(segments - 1, ((Enemy) instance).pathIndex + 1));
+                occupied[bit >> 6] |= 1L << bit;
+            }
+        }
+    }
+
+    /**
+     * Segments of the path within the given range (pixels) of a point
+     */
+    public long[] zoneOf(double x, double y, double range) {
+        List<Point> path = game.getMap().getPath();
+        long[] zone = new long[(path.size() + 1 + 63) / 64];
+        double reach = range + SLACK;
+        for (int index = -1; index < path.size(); index++) {
+            Point from = index < 0 ? game.getMap().getStartPoint() : path.get(index);
+            Point to = index + 1 < path.size() ? path.get(index + 1) : from;
+            if (distanceToSegment(x, y, center(from.x), center(from.y), center(to.x), center(to.y)) <= reach) {
+                int bit = index + 1;
+                zone[bit >> 6] |= 1L << bit;
+            }
+        }
+        return zone;
+    }
+
+    /**
+     * Whether an enemy is on any segment of the zone
+     */
+    public boolean anyOccupied(long[] zone) {
+        int words = Math.min(zone.length, occupied.length);
+        for (int i = 0; i < words; i++) {
+            if ((zone[i] & occupied[i]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static double center(int cell) {
+        return cell * Location.cellSize + Location.cellSize / 2.0;
+    }
+
+    static double distanceToSegment(double px, double py, double ax, double ay, double bx, double by) {
+        double dx = bx - ax;
+        double dy = by - ay;
+        double lengthSq = dx * dx + dy * dy;
+        double t = lengthSq == 0 ? 0 : Math.max(0, Math.min(1, ((px - ax) * dx + (py - ay) * dy) / lengthSq));
+        return Math.hypot(px - (ax + t * dx), py - (ay + t * dy));
+    }
+}
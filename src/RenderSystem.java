@@ -26,6 +26,18 @@ public class RenderSystem {
     private static final BasicStroke PREVIEW_STROKE_THICK = new BasicStroke(2);
     private static final BasicStroke PREVIEW_STROKE_THIN = new BasicStroke(1);
     
+    // Cached build mode coverage and range rings
+    private final BuildOverlay buildOverlay = new BuildOverlay(BUILDABLE_COLOR, UNBUILDABLE_COLOR);
+    
+    // Instance under the mouse (hover info)
+    private final Picker picker = new Picker();
+    private final Polygon hitboxOutline = new Polygon(); // reused by drawHitbox
+    private static final Color HITBOX_FILL = new Color(255, 255, 255, 100);
+    
+    // Fonts and laid-out text, and the wrapped tooltip lines of each build menu entry
+    private final TextCache textCache = new TextCache();
+    private final Map<Icon, List<String>> tooltipLines = new IdentityHashMap<>();
+    
     // Cached menu background image
     private BufferedImage menuBackgroundImg;
     private BufferedImage menuButtonImg;
@@ -72,7 +84,7 @@ public class RenderSystem {
             g2d.setComposite(orig);
         }
         
-        g2d.setFont(Utilities.loadFont("Romanov", Font.BOLD, 64f));
+        g2d.setFont(textCache.font("Romanov", Font.BOLD, 64f));
         g2d.setColor(Color.WHITE);
         String title = "Battle Control";
         FontMetrics tfm = g2d.getFontMetrics();
@@ -84,7 +96,7 @@ public class RenderSystem {
         int vGap = btnH + 24; // vertical spacing between buttons
         int bx = 810; // chosen left offset for all menu buttons (top-left placement)
         
-        g2d.setFont(Utilities.loadFont("Romanov", Font.BOLD, 28f));
+        g2d.setFont(textCache.font("Romanov", Font.BOLD, 28f));
         FontMetrics bfm = g2d.getFontMetrics();
         
         if (gamma.currentState == Gamma.GameState.MAIN_MENU) {
@@ -198,7 +210,7 @@ public class RenderSystem {
             // mode clicks
             for (int i = 0; i < modes.length; i++) {
                 if (modeRects.get(i).contains(gamma.mx, gamma.my)) {
-                    Gamma.selectedMode = modes[i].toLowerCase();
+                    gamma.selectedMode = modes[i].toLowerCase();
                     gamma.startGame();
                     gamma.m1 = false;
                     return;
@@ -234,7 +246,7 @@ public class RenderSystem {
         }
         
         // Title
-        g2d.setFont(Utilities.loadFont("Romanov", Font.BOLD, 40f));
+        g2d.setFont(textCache.font("Romanov", Font.BOLD, 40f));
         FontMetrics titleFm = g2d.getFontMetrics();
         String title = "Paused";
         int titleX = (1920 - titleFm.stringWidth(title)) / 2;
@@ -250,7 +262,7 @@ public class RenderSystem {
         int topY = 470;
         int vGap = btnH + 20;
         
-        g2d.setFont(Utilities.loadFont("Romanov", Font.BOLD, 28f));
+        g2d.setFont(textCache.font("Romanov", Font.BOLD, 28f));
         FontMetrics fm = g2d.getFontMetrics();
         
         // Draw three buttons
@@ -279,7 +291,6 @@ public class RenderSystem {
             if (continueRect.contains(gamma.mx, gamma.my)) {
                 gamma.currentState = Gamma.GameState.IN_GAME;
                 gamma.gameRunning = true;
-                gamma.lastUpdateTime = System.currentTimeMillis();
                 gamma.m1 = false;
             } else if (menuRect.contains(gamma.mx, gamma.my)) {
                 gamma.goToMainMenu();
@@ -293,10 +304,11 @@ public class RenderSystem {
     // ========== IN-GAME RENDERING ==========
     
     public void renderGameArea(Graphics2D g2d) {
-        g2d.setColor(Location.bg);
+        MapManager map = gamma.getGameManager().getMap();
+        g2d.setColor(map.getBackgroundColor());
         g2d.fillRect(0, 0, Gamma.GAME_WIDTH, Gamma.HEIGHT);
-        g2d.setColor(Location.pc);
-        for (Point p : Location.path) {
+        g2d.setColor(map.getPathColor());
+        for (Point p : map.getPath()) {
             g2d.fillRect(p.x * Location.cellSize, p.y * Location.cellSize, Location.cellSize, Location.cellSize);
         }
         g2d.setColor(new Color(255, 255, 255, 30));
@@ -309,7 +321,7 @@ public class RenderSystem {
         
         // draw all instances in order of zIndex
         List<Elements> renderQueue = new ArrayList<>();
-        for (Instance instance : GameManager.getInstance().getInstances()) {
+        for (Instance instance : gamma.getGameManager().getInstances()) {
             renderQueue.add(new Elements(instance, instance.zIndex));
             for (Turret turret : instance.turrets) {
                 renderQueue.add(new Elements(turret, turret.zIndex));
@@ -325,7 +337,7 @@ public class RenderSystem {
         }
         
         // Draw repair indicators last - on top of everything else
-        for (Instance instance : GameManager.getInstance().getInstances()) {
+        for (Instance instance : gamma.getGameManager().getInstances()) {
             if (instance instanceof Building) {
                 Building building = (Building) instance;
                 if (building.repairing) {
@@ -349,21 +361,10 @@ public class RenderSystem {
     }
     
     private void renderInstanceHoverInfo(Graphics2D g2d) {
+        // Use hitboxes for accurate hover detection, only the instances near the cursor are tested
         Instance hoveredInstance = null;
-        for (Instance instance : GameManager.getInstance().getInstances()) {
-            if (!instance.isAlive()) continue;
-            // Use hitboxes for accurate hover detection
-            for (Hitbox hitbox : instance.hitboxes) {
-                Polygon poly = new Polygon();
-                for (Point corner : hitbox.corners) {
-                    poly.addPoint(corner.x, corner.y);
-                }
-                if (poly.contains(gamma.mx, gamma.my) && gamma.currentState != Gamma.GameState.PAUSED) {
-                    hoveredInstance = instance;
-                    break;
-                }
-            }
-            if (hoveredInstance != null) break;
+        if (gamma.currentState != Gamma.GameState.PAUSED) {
+            hoveredInstance = picker.pick(gamma.getGameManager(), gamma.mx, gamma.my);
         }
         
         if (hoveredInstance != null) {
@@ -416,44 +417,48 @@ public class RenderSystem {
             g2d.drawRect(drawX, drawY, barWidth, barHeight);
             
             // Draw health text
-            String healthText = hoveredInstance.health + " / " + hoveredInstance.maxHealth;
-            g2d.setFont(Utilities.loadFont("Romanov", Font.BOLD, 12f));
-            FontMetrics fm = g2d.getFontMetrics();
-            int textWidth = fm.stringWidth(healthText);
+            Font font = textCache.font("Romanov", Font.BOLD, 12f);
+            FontMetrics fm = g2d.getFontMetrics(font);
+            int textWidth = textCache.numberWidth(g2d, font, hoveredInstance.health, 0)
+                    + textCache.width(g2d, font, " / ", hoveredInstance.maxHealth);
             g2d.setColor(Color.WHITE);
-            g2d.drawString(healthText, drawX + (barWidth - textWidth) / 2, drawY + barHeight + fm.getAscent());
+            int textX = drawX + (barWidth - textWidth) / 2;
+            int textY = drawY + barHeight + fm.getAscent();
+            textX = textCache.drawNumber(g2d, font, hoveredInstance.health, 0, textX, textY);
+            textCache.draw(g2d, font, " / ", hoveredInstance.maxHealth, textX, textY);
         }
     }
     
     public void renderUIPanel(Graphics2D g2d) {
         // ui setup
         g2d.drawImage(Utilities.load("ui", 1.0, 1.0), Gamma.GAME_WIDTH, 0, null);
-        g2d.setFont(Utilities.loadFont("Romanov", Font.BOLD, 16f));
+        Font statFont = textCache.font("Romanov", Font.BOLD, 16f);
+        g2d.setFont(statFont);
+        
+        Economy.View economy = gamma.getGameManager().getEconomy().view();
         
         // Draw Power centered at (uiMid - 120, 90)
-        String powerStr = "Power: " + GameManager.getInstance().getPower();
         FontMetrics fm = g2d.getFontMetrics();
-        int powerWidth = fm.stringWidth(powerStr);
+        int powerWidth = textCache.width(g2d, statFont, "Power: ", economy.power);
         int powerX = gamma.uiMid - 90 - powerWidth / 2;
         int powerY = 85 + fm.getAscent() / 2 - fm.getDescent() / 2;
-        int power = GameManager.getInstance().getPower();
+        int power = economy.power;
         if (power < 0)
             g2d.setColor(Color.RED);
         else if (power == 0)
             g2d.setColor(Color.YELLOW);
         else
             g2d.setColor(Color.GREEN);
-        g2d.drawString(powerStr, powerX, powerY);
+        textCache.draw(g2d, statFont, "Power: ", power, powerX, powerY);
         
         // Draw Kromer centered at (uiMid + 120, 90)
-        String kromerStr = "Kromer: " + GameManager.getInstance().getKromer();
-        int kromerWidth = fm.stringWidth(kromerStr);
+        int kromerWidth = textCache.width(g2d, statFont, "Kromer: ", economy.kromer);
         int kromerX = gamma.uiMid + 90 - kromerWidth / 2;
         int kromerY = 85 + fm.getAscent() / 2 - fm.getDescent() / 2;
         g2d.setColor(Color.YELLOW);
-        g2d.drawString(kromerStr, kromerX, kromerY);
+        textCache.draw(g2d, statFont, "Kromer: ", economy.kromer, kromerX, kromerY);
         
-        g2d.setFont(Utilities.loadFont("Romanov", Font.BOLD, 20f));
+        g2d.setFont(textCache.font("Romanov", Font.BOLD, 20f));
         fm = g2d.getFontMetrics();
         
         // Draw tab buttons
@@ -476,58 +481,78 @@ public class RenderSystem {
         renderErrorMessage(g2d);
         
         // Wave button and wave display
-        Font buttonFont = Utilities.loadFont("Romanov", Font.BOLD, 20f);
+        Font buttonFont = textCache.font("Romanov", Font.BOLD, 20f);
         FontMetrics buttonFm = g2d.getFontMetrics(buttonFont);
         g2d.setFont(buttonFont);
         fm = buttonFm;
         g2d.setColor(Color.WHITE);
         
         String buttonText;
-        int wave = GameManager.getInstance().getWave();
+        int wave = gamma.getGameManager().getWave();
+        WaveManager waveManager = gamma.getGameManager().getWaveManager();
         if (wave == 0) {
             buttonText = "Start Wave 1";
-        } else if (WaveManager.waveActive) {
-            buttonText = gamma.fastForward ? "Fast Forward ON" : "Fast Forward OFF";
-        } else if (WaveManager.waveCompleted) {
-            buttonText = gamma.fastForward ? "Fast Forward ON" : "Fast Forward OFF";
         } else {
-            buttonText = gamma.fastForward ? "Fast Forward ON" : "Fast Forward OFF";
-        }
-        g2d.drawString(buttonText, gamma.uiMid - fm.stringWidth(buttonText) / 2, 955);
-        
-        g2d.setFont(Utilities.loadFont("Romanov", Font.PLAIN, 30f));
-        fm = g2d.getFontMetrics();
+            buttonText = gamma.getSpeedLabel();
+        }
+        textCache.draw(g2d, buttonFont, buttonText, gamma.uiMid - textCache.width(g2d, buttonFont, buttonText) / 2, 955);
+        
+        // Rewind position and keys while scrubbing
+        if (gamma.rewinding) {
+            g2d.setFont(textCache.font("Romanov", Font.PLAIN, 15f));
+            String rewind = gamma.getRewindLabel() + "  (Left/Right, Enter resumes, R returns)";
+            g2d.drawString(rewind, gamma.uiMid - g2d.getFontMetrics().stringWidth(rewind) / 2, 925);
+            g2d.setFont(buttonFont);
+        } else if (wave > 0 && gamma.speedLevel > 0) {
+            // Achieved speed (simulated seconds per real second), can fall short of the level
+            Font font = textCache.font("Romanov", Font.PLAIN, 15f);
+            long tenths = Math.round(gamma.getGameLoop().getAchievedMultiplier() * 10);
+            int width = textCache.width(g2d, font, "running at ") + textCache.numberWidth(g2d, font, tenths, 1)
+                    + textCache.width(g2d, font, "x");
+            int textX = gamma.uiMid - width / 2;
+            textCache.draw(g2d, font, "running at ", textX, 925);
+            textX = textCache.drawNumber(g2d, font, tenths, 1, textX + textCache.width(g2d, font, "running at "), 925);
+            textCache.draw(g2d, font, "x", textX, 925);
+            g2d.setFont(buttonFont);
+        }
+        
+        Font waveFont = textCache.font("Romanov", Font.PLAIN, 30f);
+        g2d.setFont(waveFont);
         
-        String waveDisplay;
         if (wave == 0) {
-            waveDisplay = "Intermission";
-        } else if (WaveManager.waveCompleted) {
-            waveDisplay = "Wave " + WaveManager.conqueredWave + " Completed!";
+            textCache.draw(g2d, waveFont, "Intermission", gamma.uiMid - textCache.width(g2d, waveFont, "Intermission") / 2, 1010);
+        } else if (waveManager.waveCompleted) {
+            int width = textCache.width(g2d, waveFont, "Wave ", waveManager.conqueredWave)
+                    + textCache.width(g2d, waveFont, " Completed!");
+            int textX = textCache.draw(g2d, waveFont, "Wave ", waveManager.conqueredWave, gamma.uiMid - width / 2, 1010);
+            textCache.draw(g2d, waveFont, " Completed!", textX, 1010);
         } else {
-            waveDisplay = "Wave: " + wave;
+            int width = textCache.width(g2d, waveFont, "Wave: ", wave);
+            textCache.draw(g2d, waveFont, "Wave: ", wave, gamma.uiMid - width / 2, 1010);
         }
-        g2d.drawString(waveDisplay, gamma.uiMid - fm.stringWidth(waveDisplay) / 2, 1010);
         
         if (gamma.mx >= gamma.uiMid - 130 && gamma.mx <= gamma.uiMid + 130 && gamma.my >= 930 && gamma.my <= 967) {
             // mouse over start wave button, or other function after starting the wave
-            if (gamma.m1 && wave == 0 && !WaveManager.waveActive) {
+            if (gamma.m1 && wave == 0 && !waveManager.waveActive && !gamma.isReplaying()) {
                 // Start wave 1 from intermission
-                GameManager.getInstance().setWave(1);
-                WaveManager.startWave(1);
+                gamma.getGameManager().startWaves();
             } else if (gamma.m1 && wave > 0) {
-                // Toggle fast forward for waves after wave 1
-                gamma.fastForward = !gamma.fastForward;
+                // Cycle fast forward speed for waves after wave 1
+                gamma.cycleSpeed();
             }
             gamma.m1 = false;
         }
         
-        g2d.setFont(Utilities.loadFont("Romanov", Font.PLAIN, 15f));
-        g2d.setStroke(new BasicStroke(1)); // information about the cursor location
-        g2d.drawString(gamma.mx + ", " + gamma.my, gamma.mx + 20, gamma.my + 50);
+        Font cursorFont = textCache.font("Romanov", Font.PLAIN, 15f);
+        g2d.setFont(cursorFont);
+        g2d.setStroke(PREVIEW_STROKE_THIN); // information about the cursor location
+        int textX = textCache.drawNumber(g2d, cursorFont, gamma.mx, 0, gamma.mx + 20, gamma.my + 50);
+        textCache.draw(g2d, cursorFont, ", ", gamma.my, textX, gamma.my + 50);
         // also draw cell coordinates
         int cellX = gamma.mx / Location.cellSize;
         int cellY = gamma.my / Location.cellSize;
-        g2d.drawString("Cell: " + cellX + ", " + cellY, gamma.mx + 20, gamma.my + 70);
+        textX = textCache.draw(g2d, cursorFont, "Cell: ", cellX, gamma.mx + 20, gamma.my + 70);
+        textCache.draw(g2d, cursorFont, ", ", cellY, textX, gamma.my + 70);
     }
     
     private void renderErrorMessage(Graphics2D g2d) {
@@ -540,7 +565,7 @@ public class RenderSystem {
             float alpha = 1.0f - Math.min(elapsed / 1500f, 1.0f); // Fade out over 1.5 seconds
             
             if (alpha > 0.01f) {
-                g2d.setFont(Utilities.loadFont("Romanov", Font.BOLD, 25f));
+                g2d.setFont(textCache.font("Romanov", Font.BOLD, 25f));
                 FontMetrics fm = g2d.getFontMetrics();
                 g2d.setColor(new Color(255, 0, 0, (int) (255 * alpha)));
                 g2d.drawString(gamma.err, gamma.uiMid - fm.stringWidth(gamma.err) / 2, 140);
@@ -554,28 +579,25 @@ public class RenderSystem {
     }
     
     private void renderBuildingList(Graphics2D g2d) {
-        java.util.List<Gamma.Icon> iconsToDraw = gamma.tabSelected.equals("productive") ? Gamma.productive : Gamma.offensive;
+        GameManager game = gamma.getGameManager();
+        java.util.List<Icon> iconsToDraw = gamma.tabSelected.equals("productive") ? game.getProductiveIcons()
+                : game.getOffensiveIcons();
         int startX = gamma.uiMid - 100;
         int startY = 220;
         int spaceX = 100;
         int iconsPerRow = 3;
         
         // Track hovered icon to draw tooltip last
-        Gamma.Icon hoveredIcon = null;
+        Icon hoveredIcon = null;
         int hoveredX = 0;
         int hoveredY = 0;
         
         int visibleIndex = 0;
-        for (Gamma.Icon icon : iconsToDraw) {
-            if (!canBuild(icon.stats.buildingClass.getSimpleName())) {
+        for (Icon icon : iconsToDraw) {
+            if (!game.hasPrerequisites(icon)) {
                 continue; // skip icons that cannot be built, don't leave space
             }
-            int buildingCount = 0;
-            for (Instance inst : GameManager.getInstance().getInstances()) {
-                if (inst.getClass() == icon.stats.buildingClass && inst.isAlive()) {
-                    buildingCount++;
-                }
-            }
+            int buildingCount = game.countBuildings(icon.stats.buildingClass);
             int row = visibleIndex / iconsPerRow;
             int col = visibleIndex % iconsPerRow;
             int x = startX + col * spaceX;
@@ -603,9 +625,7 @@ public class RenderSystem {
                 
                 // Also gray out if construction in same category is ongoing
                 if (!shouldGrayOut) {
-                    if ("productive".equals(icon.stats.buildingType) && gamma.proOnCons && !icon.building && !icon.ready) {
-                        shouldGrayOut = true;
-                    } else if ("offensive".equals(icon.stats.buildingType) && gamma.offOnCons && !icon.building && !icon.ready) {
+                    if (game.isConstructing(icon.stats.buildingType) && !icon.building && !icon.ready) {
                         shouldGrayOut = true;
                     }
                 }
@@ -623,12 +643,13 @@ public class RenderSystem {
                 // Draw construction timer or "READY" text
                 if (icon.building) {
                     // Draw construction timer
-                    double timeRemaining = icon.stats.buildTime - icon.constructionTimer;
-                    String timerText = String.format("%.1f", Math.max(0, timeRemaining));
+                    double timeRemaining = icon.timeRemaining();
+                    long timerTenths = Math.round(Math.max(0, timeRemaining) * 10);
                     
-                    g2d.setFont(Utilities.loadFont("Romanov", Font.BOLD, 24f));
+                    Font timerFont = textCache.font("Romanov", Font.BOLD, 24f);
+                    g2d.setFont(timerFont);
                     FontMetrics fm = g2d.getFontMetrics();
-                    int textWidth = fm.stringWidth(timerText);
+                    int textWidth = textCache.numberWidth(g2d, timerFont, timerTenths, 1);
                     int textHeight = fm.getAscent();
                     
                     // Draw semi-transparent background
@@ -637,13 +658,13 @@ public class RenderSystem {
                     
                     // Draw timer text
                     g2d.setColor(Color.WHITE);
-                    g2d.drawString(timerText, x - textWidth / 2, y + img.getHeight() / 2 + textHeight / 2 - 3);
+                    textCache.drawNumber(g2d, timerFont, timerTenths, 1, x - textWidth / 2, y + img.getHeight() / 2 + textHeight / 2 - 3);
                     
                 } else if (icon.ready) {
                     // Draw "READY" text
                     String readyText = "READY";
                     
-                    g2d.setFont(Utilities.loadFont("Romanov", Font.BOLD, 16f));
+                    g2d.setFont(textCache.font("Romanov", Font.BOLD, 16f));
                     FontMetrics fm = g2d.getFontMetrics();
                     int textWidth = fm.stringWidth(readyText);
                     int textHeight = fm.getAscent();
@@ -668,16 +689,18 @@ public class RenderSystem {
                 hoveredY = y;
             }
             
+            if (gamma.isReplaying()) {
+                continue; // the recording places the buildings
+            }
             if (mouseOver && gamma.m1) {
                 // Check if we can start construction
                 boolean canConstruct = false;
                 
-                if ("productive".equals(icon.stats.buildingType) && !gamma.proOnCons) {
-                    canConstruct = true;
-                } else if ("offensive".equals(icon.stats.buildingType) && !gamma.offOnCons) {
+                if (("productive".equals(icon.stats.buildingType) || "offensive".equals(icon.stats.buildingType))
+                        && !game.isConstructing(icon.stats.buildingType)) {
                     canConstruct = true;
                 }
-                if (GameManager.getInstance().getKromer() < icon.stats.cost && !icon.ready) {
+                if (!game.getEconomy().canAfford(icon.stats.cost) && !icon.ready) {
                     canConstruct = false;
                     String[] messages = { "poor", };
                     int idx = (int) (Math.random() * messages.length);
@@ -694,8 +717,7 @@ public class RenderSystem {
                     gamma.sellMode = false;
                     gamma.repairMode = false;
                     gamma.buildMode = false;
-                    icon.construct();
-                    GameManager.getInstance().addKromer(-icon.stats.cost);
+                    game.beginConstruction(icon);
                 } else if (icon.ready) {
                     gamma.sellMode = false;
                     gamma.repairMode = false;
@@ -703,15 +725,7 @@ public class RenderSystem {
                     gamma.iconToBuild = icon;
                     gamma.buildingToBuild = icon.stats.buildingClass;
                     
-                    // Extract turret info and building dimensions directly from config
-                    gamma.turretOffsets.clear();
-                    gamma.turretRanges.clear();
-                    for (TurretStats turretStats : icon.stats.turrets) {
-                        gamma.turretOffsets.add(new Point(turretStats.offsetX, turretStats.offsetY));
-                        gamma.turretRanges.add(turretStats.range);
-                    }
-                    
-                    // Cache building dimensions from config
+                    // Cache building dimensions from config (range rings come from its stats, see BuildOverlay)
                     gamma.previewWidth = icon.stats.width;
                     gamma.previewHeight = icon.stats.height;
                     
@@ -719,17 +733,7 @@ public class RenderSystem {
                 }
                 gamma.m1 = false;
             } else if (mouseOver && gamma.m2) { // refund when right clicking constructing,ed icon
-                if (icon.building || icon.ready) {
-                    icon.building = false;
-                    icon.ready = false;
-                    icon.constructionTimer = 0.0;
-                    if ("productive".equals(icon.stats.buildingType)) {
-                        gamma.proOnCons = false;
-                    } else if ("offensive".equals(icon.stats.buildingType)) {
-                        gamma.offOnCons = false;
-                    }
-                    GameManager.getInstance().addKromer(icon.stats.cost); // refund
-                }
+                game.cancelConstruction(icon); // refund
                 gamma.m2 = false;
             }
         }
@@ -740,65 +744,23 @@ public class RenderSystem {
         }
     }
     
-    private void renderBuildingTooltip(Graphics2D g2d, Gamma.Icon icon, int iconX, int iconY) {
-        g2d.setFont(Utilities.loadFont("Romanov", Font.PLAIN, 20f));
+    private void renderBuildingTooltip(Graphics2D g2d, Icon icon, int iconX, int iconY) {
+        Font font = textCache.font("Romanov", Font.PLAIN, 20f);
+        g2d.setFont(font);
         FontMetrics fm = g2d.getFontMetrics();
-        String rawName = icon.stats.buildingClass.getSimpleName();
-        StringBuilder nameBuilder = new StringBuilder();
-        for (int i = 0; i < rawName.length(); i++) {
-            char c = rawName.charAt(i);
-            if (i > 0 && Character.isUpperCase(c) && !Character.isUpperCase(rawName.charAt(i - 1))) {
-                nameBuilder.append(' ');
-            }
-            nameBuilder.append(c);
-        }
-        String name = nameBuilder.toString();
-        String cost = "Cost: " + icon.stats.cost + " Kromer";
-        String time = "Build Time: " + icon.stats.buildTime + "s";
-        String desc = icon.stats.description;
         
         int tooltipWidth = 220;
         int padding = 8;
         int lineHeight = fm.getHeight();
         
-        // Word wrap description, ensuring no line exceeds tooltipWidth - 2*padding
-        List<String> descLines = new ArrayList<>();
-        String[] words = desc.split(" ");
-        StringBuilder line = new StringBuilder();
-        for (String word : words) {
-            String testLine = line.length() == 0 ? word : line + " " + word;
-            if (fm.stringWidth(testLine) > tooltipWidth - 2 * padding) {
-                if (line.length() > 0) descLines.add(line.toString());
-                line = new StringBuilder(word);
-            } else {
-                if (line.length() > 0) line.append(" ");
-                line.append(word);
-            }
-        }
-        if (line.length() > 0) descLines.add(line.toString());
-        
-        // Ensure each line does not exceed the tooltip width (hard break if needed)
-        List<String> finalDescLines = new ArrayList<>();
-        for (String l : descLines) {
-            if (fm.stringWidth(l) <= tooltipWidth - 2 * padding) {
-                finalDescLines.add(l);
-            } else {
-                // Hard break long lines
-                StringBuilder sb = new StringBuilder();
-                for (char c : l.toCharArray()) {
-                    sb.append(c);
-                    if (fm.stringWidth(sb.toString()) > tooltipWidth - 2 * padding) {
-                        // Remove last char, add line, start new
-                        sb.deleteCharAt(sb.length() - 1);
-                        finalDescLines.add(sb.toString());
-                        sb = new StringBuilder().append(c);
-                    }
-                }
-                if (sb.length() > 0) finalDescLines.add(sb.toString());
-            }
+        // Name, cost, build time and the wrapped description, laid out once per entry
+        List<String> lines = tooltipLines.get(icon);
+        if (lines == null) {
+            lines = tooltipLines(icon, fm, tooltipWidth - 2 * padding);
+            tooltipLines.put(icon, lines);
         }
         
-        int tooltipHeight = (3 + finalDescLines.size()) * lineHeight + 2 * padding;
+        int tooltipHeight = lines.size() * lineHeight + 2 * padding;
         
         // Prefer to place tooltip to the left of the cursor; if that would overflow,
         // place to the right
@@ -821,60 +783,69 @@ public class RenderSystem {
         g2d.drawRect(tooltipX, tooltipY, tooltipWidth, tooltipHeight);
         
         int textY = tooltipY + padding + fm.getAscent();
-        g2d.drawString(name, tooltipX + padding, textY);
-        textY += lineHeight;
-        g2d.drawString(cost, tooltipX + padding, textY);
-        textY += lineHeight;
-        g2d.drawString(time, tooltipX + padding, textY);
-        textY += lineHeight;
-        
-        for (String descLine : finalDescLines) {
-            g2d.drawString(descLine, tooltipX + padding, textY);
+        for (String line : lines) {
+            textCache.draw(g2d, font, line, tooltipX + padding, textY);
             textY += lineHeight;
         }
     }
     
-    private boolean canBuild(String buildingName) {
-        Gamma.Icon icon = null;
-        for (Gamma.Icon ic : Gamma.productive) {
-            if (ic.stats.buildingClass.getSimpleName().equalsIgnoreCase(buildingName)) {
-                icon = ic;
-                break;
+    private static List<String> tooltipLines(Icon icon, FontMetrics fm, int maxWidth) {
+        String rawName = icon.stats.buildingClass.getSimpleName();
+        StringBuilder nameBuilder = new StringBuilder();
+        for (int i = 0; i < rawName.length(); i++) {
+            char c = rawName.charAt(i);
+            if (i > 0 && Character.isUpperCase(c) && !Character.isUpperCase(rawName.charAt(i - 1))) {
+                nameBuilder.append(' ');
             }
+            nameBuilder.append(c);
         }
-        for (Gamma.Icon ic : Gamma.offensive) {
-            if (ic.stats.buildingClass.getSimpleName().equalsIgnoreCase(buildingName)) {
-                icon = ic;
-                break;
+        List<String> lines = new ArrayList<>();
+        lines.add(nameBuilder.toString());
+        lines.add("Cost: " + icon.stats.cost + " Kromer");
+        lines.add("Build Time: " + icon.stats.buildTime + "s");
+        
+        // Word wrap description, ensuring no line exceeds maxWidth
+        List<String> descLines = new ArrayList<>();
+        String[] words = icon.stats.description.split(" ");
+        StringBuilder line = new StringBuilder();
+        for (String word : words) {
+            String testLine = line.length() == 0 ? word : line + " " + word;
+            if (fm.stringWidth(testLine) > maxWidth) {
+                if (line.length() > 0) descLines.add(line.toString());
+                line = new StringBuilder(word);
+            } else {
+                if (line.length() > 0) line.append(" ");
+                line.append(word);
             }
         }
-        if (icon == null) return false;
-        for (String req : icon.stats.prerequisites) {
-            boolean found = false;
-            for (Instance instance : GameManager.getInstance().getInstances()) {
-                if (instance instanceof Building && instance.getClass().getSimpleName().equalsIgnoreCase(req)) {
-                    found = true;
-                    break;
+        if (line.length() > 0) descLines.add(line.toString());
+        
+        // Ensure each line does not exceed the tooltip width (hard break if needed)
+        for (String l : descLines) {
+            if (fm.stringWidth(l) <= maxWidth) {
+                lines.add(l);
+            } else {
+                // Hard break long lines
+                StringBuilder sb = new StringBuilder();
+                for (char c : l.toCharArray()) {
+                    sb.append(c);
+                    if (fm.stringWidth(sb.toString()) > maxWidth) {
+                        // Remove last char, add line, start new
+                        sb.deleteCharAt(sb.length() - 1);
+                        lines.add(sb.toString());
+                        sb = new StringBuilder().append(c);
+                    }
                 }
-            }
-            if (!found) {
-                return false;
+                if (sb.length() > 0) lines.add(sb.toString());
             }
         }
-        return true;
+        return lines;
     }
     
     public void renderBuildMode(Graphics2D g2d) {
         if (!gamma.buildMode) return;
-        g2d.setColor(BUILDABLE_COLOR);
-        for (Point p : gamma.buildable) {
-            g2d.fillRect(p.x * Location.cellSize, p.y * Location.cellSize, Location.cellSize, Location.cellSize);
-        }
-        g2d.setColor(UNBUILDABLE_COLOR);
-        for (Point p : gamma.unbuildable) {
-            g2d.fillRect(p.x * Location.cellSize, p.y * Location.cellSize, Location.cellSize, Location.cellSize);
-        }
-        if (gamma.status != "game" || gamma.buildingToBuild == null) return;
+        buildOverlay.renderCoverage(g2d, gamma.buildable, gamma.unbuildable, gamma.buildableVersion);
+        if (gamma.status != "game" || gamma.buildingToBuild == null || gamma.iconToBuild == null) return;
         
         // Use cached building dimensions (no reflection needed)
         int cellX = gamma.mx / Location.cellSize;
@@ -888,44 +859,19 @@ public class RenderSystem {
         g2d.setColor(PREVIEW_COLOR);
         g2d.setStroke(PREVIEW_STROKE_THIN);
         
-        // Check if RadarDish exists for preview boost
-        boolean hasRadar = false;
-        for (Instance inst : GameManager.getInstance().getInstances()) {
-            if ("RadarDish".equals(inst.getClass().getSimpleName()) && inst.isAlive()) {
-                hasRadar = true;
-                break;
-            }
-        }
-        
-        for (int i = 0; i < gamma.turretOffsets.size() && i < gamma.turretRanges.size(); i++) {
-            Point offset = gamma.turretOffsets.get(i);
-            double range = gamma.turretRanges.get(i) * (hasRadar ? 1.25 : 1.0);
-            
-            // Calculate turret position based on building center
-            // Building at cellX occupies cellX to cellX+width, so center is at cellX + width/2
-            int buildingCenterX = cellX * Location.cellSize + (gamma.previewWidth * Location.cellSize) / 2;
-            int buildingCenterY = cellY * Location.cellSize + (gamma.previewHeight * Location.cellSize) / 2;
-            
-            // Turret is offset from building center
-            int turretX = buildingCenterX + offset.x;
-            int turretY = buildingCenterY + offset.y;
-            int rangeRadius = (int) (range * Location.cellSize);
-            
-            g2d.drawOval(turretX - rangeRadius, turretY - rangeRadius, rangeRadius * 2, rangeRadius * 2);
-        }
+        // The building will get the current aura stack (Radar Dish range boost)
+        double rangeMult = gamma.getGameManager().getAuras().getRangeMultiplier();
+        buildOverlay.renderRings(g2d, gamma.iconToBuild, cellX, cellY, rangeMult);
     }
     
     private void drawHitbox(Graphics2D g2d) {
-        for (Instance instance : GameManager.getInstance().getInstances()) {
+        for (Instance instance : gamma.getGameManager().getInstances()) {
             for (Hitbox hitbox : instance.hitboxes) {
-                Polygon poly = new Polygon();
-                for (Point corner : hitbox.corners) {
-                    poly.addPoint(corner.x, corner.y);
-                }
-                g2d.setColor(new Color(255, 255, 255, 100));
+                Polygon poly = Picker.outline(hitbox, hitboxOutline);
+                g2d.setColor(HITBOX_FILL);
                 g2d.fillPolygon(poly);
                 g2d.setColor(Color.WHITE);
-                g2d.setStroke(new BasicStroke(1));
+                g2d.setStroke(PREVIEW_STROKE_THIN);
                 g2d.drawPolygon(poly);
             }
         }
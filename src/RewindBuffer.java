@@ -0,0 +1,449 @@
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+
+/**
+ * Rewind history of the last seconds of a match, for scrubbing backwards
+ * through a fight while debugging balance.
+ *
+ * Every tick records a delta against the previous tick: the instances that
+ * spawned and the ones that were removed, in the order the InstanceArena
+ * journaled them, then the instances whose position, facing or health changed
+ * (old and new values). Every keyframeInterval ticks a
+ * full MatchSnapshot is kept as well, together with the commands given since.
+ *
+ * Scrubbing applies the deltas to the live instances in place (undo going
+ * back, redo going forward), which is instant however far back the view is.
+ * Only the tracked fields and the arena change while scrubbing, both by exact
+ * inverse operations (generations and free slots included), so
+ * returning to the newest tick restores the match exactly. Resuming from an
+ * earlier tick loads the keyframe before it and re-simulates up to it with
+ * the recorded commands, which is exact as the simulation is deterministic;
+ * history after that tick is dropped, and so is the history before it (its
+ * deltas point at the instances the keyframe replaced).
+ *
+ * Memory is bounded by the window length and by maxRecords delta records
+ * (about 70 bytes each, allocated up front); when the records run out the
+ * oldest keyframe period is dropped first, so with thousands of moving
+ * instances the window gets shorter rather than the buffer bigger.
+ *
+ * Responsibilities:
+ * - Capture a delta every tick (GameLoop calls captureTick) and keyframes
+ * - Keep the commands given within the window (GameManager forwards them)
+ * - Step the view back and forth, resume from the viewed tick
+ */
+public class RewindBuffer {
+    public static final double DEFAULT_SECONDS = 10.0;
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 60; // ticks between full snapshots (1 s)
+    public static final int DEFAULT_MAX_RECORDS = 250_000; // delta records, roughly 17 MB
+
+    // Record kinds
+    private static final byte CHANGED = 0;
+    private static final byte SPAWNED = 1;
+    private static final byte REMOVED = 2;
+
+    private final GameManager game;
+    private final GameLoop loop;
+    private final int maxTicks; // window length in ticks
+    private final int keyframeInterval;
+    private final MatchSnapshot snapshot = new MatchSnapshot();
+
+    // Per tick, ring indexed by tick % tickSlots
+    private final int tickSlots;
+    private final long[] tickStart; // position of the tick's first record
+    private final int[] tickRecords;
+
+    // Delta records, ring indexed by position % maxRecords (struct of arrays)
+    private final int maxRecords;
+    private final Instance[] refs;
+    private final byte[] kinds;
+    private final int[] listIndex; // dense index the instance was swap-removed from (REMOVED)
+    private final double[] oldX, oldY, oldFacing, newX, newY, newFacing;
+    private final int[] oldHealth, newHealth;
+    private long recordHead = 0; // next position to write
+    private long recordTail = 0; // oldest retained position
+
+    private static class Keyframe {
+        final long tick;
+        final byte[] data;
+
+        Keyframe(long tick, byte[] data) {
+            this.tick = tick;
+            this.data = data;
+        }
+    }
+
+    private static class Command {
+        final long tick;
+        final int opcode;
+        final int[] args;
+
+        Command(long tick, int opcode, int[] args) {
+            this.tick = tick;
+            this.opcode = opcode;
+            this.args = args;
+        }
+    }
+
+    // Values of an instance as of the last captured tick
+    private static class Tracked {
+        double x, y, facing;
+        int health;
+    }
+
+    private final ArrayDeque<Keyframe> keyframes = new ArrayDeque<>();
+    private final ArrayDeque<Command> commands = new ArrayDeque<>();
+    private final IdentityHashMap<Instance, Tracked> tracked = new IdentityHashMap<>();
+
+    private long firstTick = -1; // oldest tick the view can go back to (oldest keyframe), -1 = empty
+    private long lastTick = -1; // newest captured tick
+    private long viewTick = -1; // tick on screen while scrubbing, -1 = live
+    private boolean resimulating = false;
+
+    public RewindBuffer(GameManager game, GameLoop loop) {
+        this(game, loop, DEFAULT_SECONDS, DEFAULT_KEYFRAME_INTERVAL, DEFAULT_MAX_RECORDS);
+    }
+
+    public RewindBuffer(GameManager game, GameLoop loop, double seconds, int keyframeInterval, int maxRecords) {
+        this.game = game;
+        this.loop = loop;
+        this.maxTicks = Math.max(1, (int) Math.round(seconds / GameLoop.FIXED_STEP));
+        this.keyframeInterval = Math.max(1, keyframeInterval);
+        this.tickSlots = maxTicks + this.keyframeInterval + 2;
+        this.tickStart = new long[tickSlots];
+        this.tickRecords = new int[tickSlots];
+        this.maxRecords = maxRecords;
+        this.refs = new Instance[maxRecords];
+        this.kinds = new byte[maxRecords];
+        this.listIndex = new int[maxRecords];
+        this.oldX = new double[maxRecords];
+        this.oldY = new double[maxRecords];
+        this.oldFacing = new double[maxRecords];
+        this.newX = new double[maxRecords];
+        this.newY = new double[maxRecords];
+        this.newFacing = new double[maxRecords];
+        this.oldHealth = new int[maxRecords];
+        this.newHealth = new int[maxRecords];
+    }
+
+    /**
+     * Forget all history (new or loaded match)
+     */
+    public void clear() {
+        keyframes.clear();
+        commands.clear();
+        tracked.clear();
+        game.getInstances().clearJournal();
+        Arrays.fill(refs, null);
+        recordHead = 0;
+        recordTail = 0;
+        firstTick = -1;
+        lastTick = -1;
+        viewTick = -1;
+    }
+
+    // ==================== CAPTURE ====================
+
+    /**
+     * Record the tick that just finished. Called by GameLoop after every tick.
+     */
+    public void captureTick() {
+        InstanceArena instances = game.getInstances();
+        if (resimulating) {
+            instances.clearJournal();
+            return;
+        }
+        long tick = game.getClock().getTicks();
+        int changes = instances.getJournalSize();
+
+        // Make room for the worst case (every change journaled, everything else moved)
+        int bound = instances.size() + changes;
+        while (maxRecords - (recordHead - recordTail) < bound && keyframes.size() > 1) {
+            dropOldestPeriod();
+        }
+        if (firstTick < 0 || maxRecords - (recordHead - recordTail) < bound) {
+            restartAt(tick); // nothing yet, or one period no longer fits: history starts here
+            return;
+        }
+
+        int slot = (int) (tick % tickSlots);
+        tickStart[slot] = recordHead;
+        // Spawns and removals, in the order the arena made them
+        for (int j = 0; j < changes; j++) {
+            Instance instance = instances.getJournalInstance(j);
+            if (instances.getJournalKind(j) == InstanceArena.ADDED) {
+                int r = write(instance, SPAWNED);
+                newX[r] = instance.exactX;
+                newY[r] = instance.exactY;
+                newFacing[r] = instance.facing;
+                newHealth[r] = instance.health;
+                tracked.put(instance, track(instance, new Tracked()));
+            } else {
+                Tracked t = tracked.remove(instance);
+                if (t == null) {
+                    t = track(instance, new Tracked()); // not seen before (e.g. placed and sold between captures)
+                }
+                int r = write(instance, REMOVED);
+                listIndex[r] = instances.getJournalIndex(j);
+                oldX[r] = t.x;
+                oldY[r] = t.y;
+                oldFacing[r] = t.facing;
+                oldHealth[r] = t.health;
+            }
+        }
+        instances.clearJournal();
+        // Changed values of everything still in the match
+        for (Instance instance : instances) {
+            Tracked t = tracked.get(instance);
+            if (t.x != instance.exactX || t.y != instance.exactY || t.facing != instance.facing
+                    || t.health != instance.health) {
+                int r = write(instance, CHANGED);
+                oldX[r] = t.x;
+                oldY[r] = t.y;
+                oldFacing[r] = t.facing;
+                oldHealth[r] = t.health;
+                newX[r] = instance.exactX;
+                newY[r] = instance.exactY;
+                newFacing[r] = instance.facing;
+                newHealth[r] = instance.health;
+                track(instance, t);
+            }
+        }
+        tickRecords[slot] = (int) (recordHead - tickStart[slot]);
+        lastTick = tick;
+
+        if (tick - keyframes.peekLast().tick >= keyframeInterval) {
+            keyframes.addLast(new Keyframe(tick, copy(snapshot.capture(game))));
+        }
+        while (lastTick - firstTick > maxTicks && keyframes.size() > 1) {
+            dropOldestPeriod();
+        }
+    }
+
+    private static Tracked track(Instance instance, Tracked t) {
+        t.x = instance.exactX;
+        t.y = instance.exactY;
+        t.facing = instance.facing;
+        t.health = instance.health;
+        return t;
+    }
+
+    /**
+     * Keep a command given at the current tick (GameManager forwards every
+     * effective command)
+     */
+    public void recordCommand(int opcode, int[] args) {
+        if (!resimulating && firstTick >= 0) {
+            commands.addLast(new Command(game.getClock().getTicks(), opcode, args.clone()));
+        }
+    }
+
+    private int write(Instance instance, byte kind) {
+        int r = (int) (recordHead % maxRecords);
+        refs[r] = instance;
+        kinds[r] = kind;
+        recordHead++;
+        return r;
+    }
+
+    // Start the history over with a keyframe at this tick
+    private void restartAt(long tick) {
+        keyframes.clear();
+        commands.clear();
+        tracked.clear();
+        game.getInstances().clearJournal();
+        recordTail = recordHead;
+        for (Instance instance : game.getInstances()) {
+            tracked.put(instance, track(instance, new Tracked()));
+        }
+        keyframes.addLast(new Keyframe(tick, copy(snapshot.capture(game))));
+        firstTick = tick;
+        lastTick = tick;
+    }
+
+    // Drop the oldest keyframe and everything up to the next one
+    private void dropOldestPeriod() {
+        keyframes.removeFirst();
+        firstTick = keyframes.peekFirst().tick;
+        long newTail = tickStart[(int) ((firstTick + 1) % tickSlots)];
+        if (firstTick == lastTick) {
+            newTail = recordHead;
+        }
+        for (long p = recordTail; p < newTail; p++) {
+            refs[(int) (p % maxRecords)] = null; // let removed instances be collected
+        }
+        recordTail = newTail;
+        while (!commands.isEmpty() && commands.peekFirst().tick < firstTick) {
+            commands.removeFirst();
+        }
+    }
+
+    private static byte[] copy(ByteBuffer data) {
+        byte[] bytes = new byte[data.remaining()];
+        data.get(bytes);
+        return bytes;
+    }
+
+    // ==================== SCRUBBING ====================
+
+    public boolean isScrubbing() {
+        return viewTick >= 0;
+    }
+
+    public long getViewTick() {
+        return viewTick;
+    }
+
+    public long getFirstTick() {
+        return firstTick;
+    }
+
+    public long getLastTick() {
+        return lastTick;
+    }
+
+    /**
+     * Start scrubbing at the newest tick. Only call between ticks, with the
+     * simulation stopped until resume/cancel.
+     */
+    public boolean beginScrub() {
+        if (firstTick < 0) {
+            return false;
+        }
+        viewTick = lastTick;
+        return true;
+    }
+
+    /**
+     * Move the view by the given number of ticks (negative = back),
+     * clamped to the retained window
+     */
+    public void step(int ticks) {
+        if (viewTick < 0) {
+            return;
+        }
+        long target = Math.max(firstTick, Math.min(lastTick, viewTick + ticks));
+        while (viewTick > target) {
+            undo(viewTick--);
+        }
+        while (viewTick < target) {
+            redo(++viewTick);
+        }
+        game.getInstances().clearJournal(); // scrubbing is not a change of the match
+    }
+
+    // Turn state(tick) back into state(tick - 1), undoing the records newest first
+    private void undo(long tick) {
+        int slot = (int) (tick % tickSlots);
+        InstanceArena instances = game.getInstances();
+        long start = tickStart[slot];
+        for (long p = start + tickRecords[slot] - 1; p >= start; p--) {
+            int r = (int) (p % maxRecords);
+            Instance instance = refs[r];
+            if (kinds[r] == SPAWNED) {
+                instances.removeLast();
+                continue;
+            }
+            if (kinds[r] == REMOVED) {
+                instances.unremove(listIndex[r], instance);
+                instance.alive = true;
+            }
+            apply(instance, oldX[r], oldY[r], oldFacing[r], oldHealth[r]);
+        }
+    }
+
+    // Turn state(tick - 1) into state(tick), redoing the records in order
+    private void redo(long tick) {
+        int slot = (int) (tick % tickSlots);
+        InstanceArena instances = game.getInstances();
+        long start = tickStart[slot];
+        for (long p = start; p < start + tickRecords[slot]; p++) {
+            int r = (int) (p % maxRecords);
+            Instance instance = refs[r];
+            if (kinds[r] == REMOVED) {
+                instances.swapRemove(listIndex[r]);
+                instance.alive = false;
+                continue;
+            }
+            if (kinds[r] == SPAWNED) {
+                instances.add(instance);
+            }
+            apply(instance, newX[r], newY[r], newFacing[r], newHealth[r]);
+        }
+    }
+
+    private static void apply(Instance instance, double x, double y, double facing, int health) {
+        instance.exactX = x;
+        instance.exactY = y;
+        instance.facing = facing;
+        instance.health = health;
+        instance.updateHitboxes();
+    }
+
+    /**
+     * Leave scrubbing and continue from the newest tick, exactly where the
+     * match was
+     */
+    public void cancel() {
+        if (viewTick >= 0) {
+            step((int) (lastTick - viewTick));
+            viewTick = -1;
+        }
+    }
+
+    /**
+     * Continue the match from the viewed tick. Loads the keyframe before it
+     * and re-simulates the ticks in between with the commands given then.
+     * Returns false if the match stays at the newest tick (nothing to rewind).
+     * Throws if the keyframe cannot be restored; the match is then half
+     * restored and the history cleared, so it can only be dropped.
+     */
+    public boolean resume() {
+        if (viewTick < 0) {
+            return false;
+        }
+        long target = viewTick;
+        if (target == lastTick) {
+            viewTick = -1;
+            return false;
+        }
+        cancel(); // back to a consistent live state before replacing it
+        game.stopRecording(); // the timeline forks here, a command log cannot follow
+
+        Keyframe base = keyframes.peekFirst();
+        for (Keyframe keyframe : keyframes) {
+            if (keyframe.tick <= target) {
+                base = keyframe;
+            }
+        }
+        ArrayList<Command> replay = new ArrayList<>();
+        for (Command command : commands) {
+            if (command.tick >= base.tick && command.tick < target) {
+                replay.add(command);
+            }
+        }
+
+        resimulating = true;
+        game.setCommandsMuted(true);
+        try {
+            game.restoreSnapshot(base.data);
+            Iterator<Command> next = replay.iterator();
+            Command pending = next.hasNext() ? next.next() : null;
+            while (game.getClock().getTicks() < target) {
+                while (pending != null && pending.tick <= game.getClock().getTicks()) {
+                    CommandLog.execute(game, pending.opcode, pending.args);
+                    pending = next.hasNext() ? next.next() : null;
+                }
+                loop.updateGameObjects(GameLoop.FIXED_STEP);
+            }
+        } finally {
+            game.setCommandsMuted(false);
+            resimulating = false;
+            clear(); // the old history points at the replaced instances
+        }
+        return true;
+    }
+}
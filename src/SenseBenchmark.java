@@ -0,0 +1,124 @@
+import java.awt.Point;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Scaling benchmark of the turret sense phase.
+ * Fills a sandbox match with turrets and enemies, saves it, then plays the
+ * same ticks from that save on ForkJoinPools of 1, 2, 4, 8 and 16 threads,
+ * timing the sense phase alone and whole ticks. Every run must end in the
+ * same state, which is checked as well.
+ *
+ * Usage (from the project root):
+ *   java -Djava.awt.headless=true -cp bin:lib/gson-2.10.1.jar SenseBenchmark [buildings] [enemies] [ticks]
+ */
+public class SenseBenchmark {
+    static final int[] THREADS = { 1, 2, 4, 8, 16 };
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        int buildings = args.length > 0 ? Integer.parseInt(args[0]) : 300;
+        int enemies = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int ticks = args.length > 2 ? Integer.parseInt(args[2]) : 300;
+
+        HeadlessRunner runner = new HeadlessRunner();
+        GameManager game = runner.getGameManager();
+        game.setSeed(1);
+        game.startMatch("plain", "sandbox");
+        populate(game, buildings, enemies);
+        GameLoop loop = new GameLoop(game);
+        loop.updateGameObjects(GameLoop.FIXED_STEP); // spawn the enemies
+        ByteBuffer saved = new MatchSnapshot().capture(game);
+        byte[] start = new byte[saved.remaining()];
+        saved.get(start);
+
+        int turrets = 0;
+        for (Instance instance : game.getInstances()) {
+            turrets += instance.turrets.size();
+        }
+        System.out.println("[SenseBenchmark] " + game.getInstances().size() + " instances, " + turrets + " turrets, "
+                + ticks + " ticks, " + Runtime.getRuntime().availableProcessors() + " cores available");
+        System.out.println("threads  sense ms/tick  tick ms/tick  ticks/s  speedup  same result");
+
+        // Warm up the whole tick path once so the first row is not paying for the JIT
+        game.restoreSnapshot(start);
+        for (int i = 0; i < ticks; i++) {
+            loop.updateGameObjects(GameLoop.FIXED_STEP);
+        }
+
+        double baseline = 0;
+        long baselineHash = 0;
+        for (int threads : THREADS) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                SensePhase sense = loop.getSensePhase();
+                sense.setPool(pool);
+
+                // Sense phase alone, on the saved world (warm up first)
+                game.restoreSnapshot(start);
+                List<Instance> instances = game.getInstances();
+                game.getZones().update(instances);
+                for (int i = 0; i < ticks / 4; i++) {
+                    sense.run(instances, game.getZones(), GameLoop.FIXED_STEP);
+                }
+                long t0 = System.nanoTime();
+                for (int i = 0; i < ticks; i++) {
+                    sense.run(instances, game.getZones(), GameLoop.FIXED_STEP);
+                }
+                double senseMillis = (System.nanoTime() - t0) / 1e6 / ticks;
+
+                // Whole ticks from the save
+                game.restoreSnapshot(start);
+                long t1 = System.nanoTime();
+                for (int i = 0; i < ticks; i++) {
+                    loop.updateGameObjects(GameLoop.FIXED_STEP);
+                }
+                double tickMillis = (System.nanoTime() - t1) / 1e6 / ticks;
+                long hash = stateHash(game);
+
+                if (threads == THREADS[0]) {
+                    baseline = tickMillis;
+                    baselineHash = hash;
+                }
+                System.out.printf("%7d  %13.3f  %12.3f  %7.0f  %6.2fx  %s%n", threads, senseMillis, tickMillis,
+                        1000 / tickMillis, baseline / tickMillis, hash == baselineHash ? "yes" : "NO");
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    // Turrets on every free cell pair of the grid, enemies spread along the path
+    private static void populate(GameManager game, int buildings, int enemies) {
+        int placed = 0;
+        for (int y = 0; y + 1 < MapManager.ROWS && placed < buildings; y += 2) {
+            for (int x = 0; x + 1 < MapManager.COLS && placed < buildings; x += 2) {
+                AutoCannon cannon = new AutoCannon(game, x, y);
+                if (game.addInstance(cannon, false)) {
+                    placed++;
+                } else {
+                    game.discardBuilding(cannon);
+                }
+            }
+        }
+        List<Point> path = game.getMap().getPath();
+        for (int i = 0; i < enemies; i++) {
+            Point p = path.get(i % (path.size() - 1));
+            game.addInstance(i % 4 == 0 ? new Kodiak(game, p.x, p.y) : new Recon(game, p.x, p.y));
+        }
+    }
+
+    private static long stateHash(GameManager game) {
+        long hash = game.getClock().getTicks() * 31 + game.getKromer();
+        for (Instance instance : game.getInstances()) {
+            hash = hash * 31 + Double.doubleToLongBits(instance.exactX);
+            hash = hash * 31 + Double.doubleToLongBits(instance.facing);
+            hash = hash * 31 + instance.health;
+            for (Turret turret : instance.turrets) {
+                hash = hash * 31 + Double.doubleToLongBits(turret.facing);
+            }
+        }
+        return hash;
+    }
+}
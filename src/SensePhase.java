@@ -0,0 +1,98 @@
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Parallel target acquisition: runs Turret.sense() for every turret of a tick
+ * before anything moves or fires.
+ *
+ * Sensing only reads the world and writes the turret's own fields (each turret
+ * has its own random stream), so the result is the same on any number of
+ * threads; the act phase (Turret.update) then runs serially in list order.
+ *
+ * Responsibilities:
+ * - Gather the awake turrets of all living instances into a reusable array
+ *   (building turrets with no enemy near their range zone sleep, see RangeZones)
+ * - Split them into chunks and sense them on a ForkJoinPool
+ * - Stay serial for small matches, where forking costs more than it saves
+ */
+public class SensePhase {
+    static final int CHUNK = 32; // turrets per task
+    static final int MIN_PARALLEL = 4 * CHUNK; // fewer turrets than this are sensed on the calling thread
+
+    private ForkJoinPool pool; // null = always serial
+    private Turret[] turrets = new Turret[256];
+    private int count = 0;
+
+    public SensePhase(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Pool to sense on, null to sense serially (e.g. when matches already run in parallel)
+     */
+    public void setPool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Sense all awake turrets of the living instances for the coming tick
+     */
+    public void run(List<Instance> instances, RangeZones zones, float deltaTime) {
+        count = 0;
+        for (int i = 0; i < instances.size(); i++) {
+            Instance instance = instances.get(i);
+            if (instance.isAlive()) {
+                for (Turret turret : instance.turrets) {
+                    if (turret.sleeps(zones)) {
+                        continue;
+                    }
+                    if (count == turrets.length) {
+                        turrets = Arrays.copyOf(turrets, count * 2);
+                    }
+                    turrets[count++] = turret;
+                }
+            }
+        }
+        if (pool == null || count < MIN_PARALLEL) {
+            sense(0, count, deltaTime);
+        } else {
+            pool.invoke(new Chunk(0, count, deltaTime));
+        }
+        Arrays.fill(turrets, 0, count, null);
+    }
+
+    private void sense(int from, int to, float deltaTime) {
+        for (int i = from; i < to; i++) {
+            turrets[i].sense(deltaTime);
+        }
+    }
+
+    // Halves the range until it fits in a chunk
+    private class Chunk extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final int from, to;
+        private final float deltaTime;
+
+        Chunk(int from, int to, float deltaTime) {
+            this.from = from;
+            this.to = to;
+            this.deltaTime = deltaTime;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= CHUNK) {
+                sense(from, to, deltaTime);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Chunk(from, mid, deltaTime), new Chunk(mid, to, deltaTime));
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/**
+ * Monotonic simulation clock for a single match.
+ * Simulated time only moves when the game loop advances a tick, so pausing
+ * freezes it and fast-forward (or batch runs) speed it up consistently.
+ *
+ * Responsibilities:
+ * - Sample real elapsed time from System.nanoTime (interactive mode)
+ * - Accumulate simulated seconds and the number of simulated ticks
+ * - Provide the single time source for waves, intermissions and timers
+ */
+public class SimClock {
+    private double time = 0; // simulated seconds since the match started
+    private long ticks = 0; // number of simulation ticks advanced
+    private long lastSampleNanos = 0; // last real-time sample, 0 = not sampled yet
+
+    /**
+     * Sample the real time elapsed since the previous call, in seconds.
+     * Only used by the interactive loop; batch runs feed fixed steps instead.
+     * The first sample after a reset/resync returns 0.
+     */
+    public float sampleRealDelta() {
+        long now = System.nanoTime();
+        float delta = lastSampleNanos == 0 ? 0 : (now - lastSampleNanos) / 1_000_000_000.0f;
+        lastSampleNanos = now;
+        return delta;
+    }
+
+    /**
+     * Forget the last real-time sample so the next frame does not see the gap
+     * (e.g. after coming back from the main menu)
+     */
+    public void resync() {
+        lastSampleNanos = 0;
+    }
+
+    /**
+     * Advance simulated time by one tick
+     */
+    public void advance(float deltaTime) {
+        time += deltaTime;
+        ticks++;
+    }
+
+    /**
+     * Current simulated time in seconds
+     */
+    public double now() {
+        return time;
+    }
+
+    public long getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Continue from a saved time (snapshot loading)
+     */
+    public void restore(double time, long ticks) {
+        this.time = time;
+        this.ticks = ticks;
+        lastSampleNanos = 0;
+    }
+
+    /**
+     * Reset to the beginning of a match
+     */
+    public void reset() {
+        time = 0;
+        ticks = 0;
+        lastSampleNanos = 0;
+    }
+}
@@ -0,0 +1,63 @@
+/**
+ * Deterministic, splittable random number generator for the simulation.
+ * Same algorithm as java.util.SplittableRandom (SplitMix64), but the state is
+ * a single long that can be read and restored, so saves and replays can
+ * continue the exact same sequence.
+ *
+ * Responsibilities:
+ * - One root generator per match, seeded from the match seed
+ * - Independent streams split off for every turret and weapon, so entities
+ *   never share generator state (safe for parallel phases)
+ * - Identical seed + identical inputs = bit-identical outcomes
+ *
+ * Not thread-safe: a stream belongs to one entity / one thread.
+ */
+public class SimRandom {
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private long state;
+
+    public SimRandom(long seed) {
+        this.state = seed;
+    }
+
+    public long nextLong() {
+        return mix64(state += GOLDEN_GAMMA);
+    }
+
+    /**
+     * Uniform double in [0, 1)
+     */
+    public double nextDouble() {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * Uniform int in [0, bound), bound must be positive
+     */
+    public int nextInt(int bound) {
+        return (int) (((nextLong() >>> 32) * bound) >>> 32);
+    }
+
+    /**
+     * New independent stream; advances this generator by one value
+     */
+    public SimRandom split() {
+        return new SimRandom(mix64(nextLong()));
+    }
+
+    public long getState() {
+        return state;
+    }
+
+    public void setState(long state) {
+        this.state = state;
+    }
+
+    // SplitMix64 finalizer (Stafford variant 13)
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,100 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Save/load round-trip check: plays a seeded headless match and, every few
+ * ticks, captures a snapshot, loads it into a second match and captures that
+ * again. The two snapshots must be byte for byte the same; a snapshot that
+ * cannot be loaded, or comes back different, is reported with its tick.
+ *
+ * Responsibilities:
+ * - Play a full match with a build order, so buildings are placed, sold
+ *   and destroyed and shooters die with projectiles in flight
+ * - Round-trip a snapshot through MatchSnapshot.load at a fixed tick interval
+ * - Report the failed ticks and exit with status 1 if there were any
+ *
+ * Usage (from the project root):
+ *   java -Djava.awt.headless=true -cp bin:lib/gson-2.10.1.jar SnapshotCheck
+ *        [--map plain] [--mode normal] [--build-order resources/buildorders/plain_basic.txt]
+ *        [--seed 7] [--waves 12] [--max-minutes 30] [--every 10]
+ */
+public class SnapshotCheck {
+    private static final int MAX_REPORTED = 10; // failures printed in full
+
+    private final GameManager target; // match the snapshots are loaded into
+    private final int every;
+    private int checked;
+    private int failed;
+
+    public SnapshotCheck(GameManager target, int every) {
+        this.target = target;
+        this.every = every;
+    }
+
+    /**
+     * Round-trip the match's state if this tick is due (called after every tick)
+     */
+    public void afterTick(GameManager game) {
+        long tick = game.getClock().getTicks();
+        if (tick % every != 0) {
+            return;
+        }
+        checked++;
+        byte[] saved = bytes(new MatchSnapshot().capture(game));
+        String problem;
+        try {
+            new MatchSnapshot().load(target, saved);
+            byte[] loaded = bytes(new MatchSnapshot().capture(target));
+            int at = Arrays.mismatch(saved, loaded);
+            problem = at < 0 ? null : "reloaded snapshot differs at byte " + at
+                    + " (" + saved.length + " vs " + loaded.length + " bytes)";
+        } catch (Exception e) {
+            problem = "load failed: " + e;
+        }
+        if (problem != null && failed++ < MAX_REPORTED) {
+            System.out.println("[SnapshotCheck] tick " + tick + ": " + problem);
+        }
+    }
+
+    private static byte[] bytes(ByteBuffer data) {
+        byte[] out = new byte[data.remaining()];
+        data.get(out);
+        return out;
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+
+        HashMap<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Expected --option value, got " + args[i]);
+            }
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+
+        String map = options.getOrDefault("map", "plain");
+        String mode = options.getOrDefault("mode", "normal");
+        int waves = Integer.parseInt(options.getOrDefault("waves", "12"));
+        double maxSeconds = Double.parseDouble(options.getOrDefault("max-minutes", "30")) * 60;
+        long seed = Long.parseLong(options.getOrDefault("seed", "7"));
+        int every = Integer.parseInt(options.getOrDefault("every", "10"));
+        BuildOrder order = BuildOrder.load(options.getOrDefault("build-order", "resources/buildorders/plain_basic.txt"));
+
+        ConfigManager configs = HeadlessRunner.loadConfigs();
+        HeadlessRunner runner = new HeadlessRunner(configs);
+        HeadlessRunner target = new HeadlessRunner(configs);
+        SnapshotCheck check = new SnapshotCheck(target.getGameManager(), every);
+        runner.getGameManager().setSeed(seed);
+        runner.setAfterTick(check::afterTick);
+        HeadlessRunner.Result result = runner.run(map, mode, waves, maxSeconds, order);
+
+        System.out.println("[SnapshotCheck] " + map + " / " + mode + ", seed " + seed + ": " + result);
+        System.out.println("[SnapshotCheck] " + check.checked + " snapshots round-tripped every " + every
+                + " ticks, " + check.failed + " failed");
+        if (check.failed > 0) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,239 @@
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Laid-out text for the HUD, labels and tooltips, so a frame draws text
+ * without deriving fonts, measuring strings or laying out glyphs again.
+ *
+ * Strings are kept as GlyphVectors with their width, keyed by font and text,
+ * least recently used first out. Numbers (kromer, power, wave, timers,
+ * health) would make a new entry for every value, so they are drawn from a
+ * per-font strip of digit glyphs instead, one glyph at a time, without
+ * building a String. Lookups reuse a probe key, so a hit allocates nothing.
+ * Render thread only.
+ *
+ * Responsibilities:
+ * - Cache derived fonts by name, style and size
+ * - Cache laid-out strings with LRU eviction
+ * - Measure and draw fixed-point numbers from a digit strip
+ */
+public class TextCache {
+    static final int MAX_STRINGS = 512;
+    private static final String STRIP = "0123456789-.";
+
+    // Font lookup key, also used as a reusable probe
+    private static final class FontKey {
+        String name;
+        int style;
+        float size;
+
+        FontKey set(String name, int style, float size) {
+            this.name = name;
+            this.style = style;
+            this.size = size;
+            return this;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof FontKey)) {
+                return false;
+            }
+            FontKey k = (FontKey) o;
+            return style == k.style && size == k.size && name.equals(k.name);
+        }
+
+        @Override
+        public int hashCode() {
+            return (name.hashCode() * 31 + style) * 31 + Float.floatToIntBits(size);
+        }
+    }
+
+    // String lookup key, also used as a reusable probe
+    private static final class TextKey {
+        Font font;
+        String text;
+
+        TextKey set(Font font, String text) {
+            this.font = font;
+            this.text = text;
+            return this;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof TextKey)) {
+                return false;
+            }
+            TextKey k = (TextKey) o;
+            return font.equals(k.font) && text.equals(k.text);
+        }
+
+        @Override
+        public int hashCode() {
+            return font.hashCode() * 31 + text.hashCode();
+        }
+    }
+
+    // A laid-out string
+    private static final class Laid {
+        final GlyphVector glyphs;
+        final FontRenderContext frc;
+        final int width; // FontMetrics.stringWidth
+
+        Laid(GlyphVector glyphs, FontRenderContext frc, int width) {
+            this.glyphs = glyphs;
+            this.frc = frc;
+            this.width = width;
+        }
+    }
+
+    // Digit glyphs of one font
+    private static final class Strip {
+        final GlyphVector[] glyphs = new GlyphVector[STRIP.length()];
+        final int[] advances = new int[STRIP.length()];
+        final FontRenderContext frc;
+
+        Strip(Font font, FontMetrics fm, FontRenderContext frc) {
+            this.frc = frc;
+            for (int i = 0; i < STRIP.length(); i++) {
+                glyphs[i] = font.createGlyphVector(frc, STRIP.substring(i, i + 1));
+                advances[i] = fm.charWidth(STRIP.charAt(i));
+            }
+        }
+    }
+
+    private static final int MINUS = 10;
+    private static final int POINT = 11;
+
+    private final HashMap<FontKey, Font> fonts = new HashMap<>();
+    private final FontKey fontProbe = new FontKey();
+    private final LinkedHashMap<TextKey, Laid> strings = new LinkedHashMap<TextKey, Laid>(MAX_STRINGS, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<TextKey, Laid> eldest) {
+            return size() > MAX_STRINGS;
+        }
+    };
+    private final TextKey textProbe = new TextKey();
+    private final HashMap<Font, Strip> strips = new HashMap<>();
+    private final int[] digits = new int[24]; // scratch, least significant first
+
+    // ==================== FONTS ====================
+
+    /**
+     * Font by name, style and size (see Utilities.loadFont), derived once
+     */
+    public Font font(String name, int style, float size) {
+        Font font = fonts.get(fontProbe.set(name, style, size));
+        if (font == null) {
+            font = Utilities.loadFont(name, style, size);
+            fonts.put(new FontKey().set(name, style, size), font);
+        }
+        return font;
+    }
+
+    // ==================== STRINGS ====================
+
+    /**
+     * Width of the text in the given font, as FontMetrics.stringWidth
+     */
+    public int width(Graphics2D g, Font font, String text) {
+        return laid(g, font, text).width;
+    }
+
+    /**
+     * Draw the text with its baseline at (x, y) in the graphics' current color
+     */
+    public void draw(Graphics2D g, Font font, String text, float x, float y) {
+        g.drawGlyphVector(laid(g, font, text).glyphs, x, y);
+    }
+
+    private Laid laid(Graphics2D g, Font font, String text) {
+        FontRenderContext frc = g.getFontRenderContext();
+        Laid laid = strings.get(textProbe.set(font, text));
+        if (laid == null || !laid.frc.equals(frc)) {
+            laid = new Laid(font.createGlyphVector(frc, text), frc, g.getFontMetrics(font).stringWidth(text));
+            strings.put(new TextKey().set(font, text), laid);
+        }
+        return laid;
+    }
+
+    // ==================== NUMBERS ====================
+
+    /**
+     * Width of a fixed-point number (value / 10^decimals) in the given font
+     */
+    public int numberWidth(Graphics2D g, Font font, long value, int decimals) {
+        Strip strip = strip(g, font);
+        int count = split(value, decimals);
+        int width = value < 0 ? strip.advances[MINUS] : 0;
+        for (int i = 0; i < count; i++) {
+            width += strip.advances[digits[i]];
+        }
+        return decimals > 0 ? width + strip.advances[POINT] : width;
+    }
+
+    /**
+     * Draw a fixed-point number (value / 10^decimals) with its baseline at (x, y);
+     * returns the x after it, for text that follows
+     */
+    public int drawNumber(Graphics2D g, Font font, long value, int decimals, int x, int y) {
+        Strip strip = strip(g, font);
+        int count = split(value, decimals);
+        if (value < 0) {
+            g.drawGlyphVector(strip.glyphs[MINUS], x, y);
+            x += strip.advances[MINUS];
+        }
+        for (int i = count - 1; i >= 0; i--) {
+            g.drawGlyphVector(strip.glyphs[digits[i]], x, y);
+            x += strip.advances[digits[i]];
+            if (i == decimals && decimals > 0) {
+                g.drawGlyphVector(strip.glyphs[POINT], x, y);
+                x += strip.advances[POINT];
+            }
+        }
+        return x;
+    }
+
+    /**
+     * Width of a label followed by an integer, e.g. "Kromer: " and 1000
+     */
+    public int width(Graphics2D g, Font font, String label, long value) {
+        return width(g, font, label) + numberWidth(g, font, value, 0);
+    }
+
+    /**
+     * Draw a label followed by an integer with its baseline at (x, y); returns the x after it
+     */
+    public int draw(Graphics2D g, Font font, String label, long value, int x, int y) {
+        Laid laid = laid(g, font, label);
+        g.drawGlyphVector(laid.glyphs, x, y);
+        return drawNumber(g, font, value, 0, x + laid.width, y);
+    }
+
+    // Digits of |value|, least significant first, at least decimals + 1 of them; returns the count
+    private int split(long value, int decimals) {
+        int count = 0;
+        do {
+            digits[count++] = (int) Math.abs(value % 10);
+            value /= 10;
+        } while (value != 0 || count <= decimals);
+        return count;
+    }
+
+    private Strip strip(Graphics2D g, Font font) {
+        FontRenderContext frc = g.getFontRenderContext();
+        Strip strip = strips.get(font);
+        if (strip == null || !strip.frc.equals(frc)) {
+            strip = new Strip(font, g.getFontMetrics(font), frc);
+            strips.put(font, strip);
+        }
+        return strip;
+    }
+}
@@ -0,0 +1,309 @@
+import java.util.Arrays;
+
+/**
+ * Hierarchical timing wheel on simulated time, for timers that only need to
+ * do something once they run out (construction, income, repair ticks).
+ *
+ * Time is counted in units of half a tick, so a wheel running at half speed
+ * (power deficit) still moves a whole number of units per tick. A component
+ * schedules a Timer "in n seconds" and the wheel runs it when it is due; only
+ * the due slot is looked at each unit, everything else costs nothing until
+ * then. Level 0 holds the next 64 units one slot each, every further level 64
+ * times as much per slot; a slot of a higher level is cascaded down when the
+ * lower ones wrap around (Varghese & Lauck). Timers further out than the top
+ * level wait in an overflow list.
+ *
+ * Timers due in the same unit run in the order they were scheduled (their
+ * sequence number, saved with them), so a restored match fires them exactly
+ * like the original. Components with a "ready again after" gate (weapon rate
+ * of fire, target acquisition cooldowns) keep the wheel time of their last
+ * action instead and compare it with now() or tickStart(), which costs
+ * nothing per tick.
+ *
+ * Responsibilities:
+ * - Schedule, cancel and run timers on simulated time
+ * - Advance by one tick at the wheel's rate (time dilation)
+ * - Convert between seconds and wheel units
+ */
+public class TimerWheel {
+    public static final int UNITS_PER_TICK = 2; // wheel units per tick at normal speed
+    public static final double UNITS_PER_SECOND = UNITS_PER_TICK / (double) GameLoop.FIXED_STEP;
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4; // 2^24 units, over a day of simulated time
+    private static final int OVERFLOW = LEVELS * SLOTS; // bucket of the timers beyond the top level
+
+    // Timer states besides its bucket index
+    private static final int IDLE = -1;
+    private static final int FIRING = -2;
+
+    /**
+     * An action to run once at a scheduled wheel time. Owned by the component
+     * that reschedules it; scheduling it again moves it.
+     */
+    public static final class Timer {
+        private final Runnable action;
+        private long due = -1; // wheel time it runs at, -1 = not scheduled
+        private long seq = 0; // order among timers due in the same unit
+        private int bucket = IDLE;
+        private Timer prev, next; // in its bucket
+
+        public Timer(Runnable action) {
+            this.action = action;
+        }
+
+        public boolean isScheduled() {
+            return bucket != IDLE;
+        }
+
+        public long getDue() {
+            return due;
+        }
+
+        public long getSeq() {
+            return seq;
+        }
+    }
+
+    private final Timer[] buckets = new Timer[OVERFLOW + 1]; // list heads
+    private long now = 0; // wheel units since the match started
+    private long tickStart = 0; // wheel time before the last advance
+    private long nextSeq = 0;
+    private int rate = UNITS_PER_TICK; // units per tick, UNITS_PER_TICK = normal speed
+    private Timer[] firing = new Timer[16]; // timers of the unit being run
+
+    // ==================== TIME ====================
+
+    public long now() {
+        return now;
+    }
+
+    /**
+     * Wheel time at the start of the current tick, before it was advanced
+     * (for timers that only count the ticks before the one they act in)
+     */
+    public long tickStart() {
+        return tickStart;
+    }
+
+    /**
+     * Units per tick: UNITS_PER_TICK for normal speed, UNITS_PER_TICK / 2 for half speed
+     */
+    public void setRate(int unitsPerTick) {
+        this.rate = unitsPerTick;
+    }
+
+    public int getRate() {
+        return rate;
+    }
+
+    /**
+     * A tick's length as this wheel sees it (for movement that slows down with its timers)
+     */
+    public float scale(float deltaTime) {
+        return deltaTime * rate / UNITS_PER_TICK;
+    }
+
+    /**
+     * Whether at least the given seconds of wheel time have passed since the given wheel time
+     */
+    public boolean elapsed(long since, double seconds) {
+        return now - since >= toUnits(seconds);
+    }
+
+    /**
+     * Wheel time the given seconds ago (e.g. a cooldown that is already over)
+     */
+    public long ago(double seconds) {
+        return now - toUnits(seconds);
+    }
+
+    public double secondsSince(long since) {
+        return (now - since) / UNITS_PER_SECOND;
+    }
+
+    /**
+     * Seconds of wheel time until the timer runs, 0 if it is not scheduled
+     */
+    public double remaining(Timer timer) {
+        return timer.isScheduled() ? Math.max(0, timer.due - now) / UNITS_PER_SECOND : 0;
+    }
+
+    /**
+     * Whole units covering the given seconds (a timer never runs early)
+     */
+    public static long toUnits(double seconds) {
+        return Math.max(0, (long) Math.ceil(seconds * UNITS_PER_SECOND - 1e-6));
+    }
+
+    /**
+     * Advance by one tick at the current rate, running every timer that comes due.
+     * The length is rounded to whole GameLoop.FIXED_STEPs, so callers step by FIXED_STEP
+     */
+    public void advance(float deltaTime) {
+        int units = Math.max(1, Math.round(deltaTime / GameLoop.FIXED_STEP)) * rate;
+        tickStart = now;
+        for (int i = 0; i < units; i++) {
+            step();
+        }
+    }
+
+    private void step() {
+        now++;
+        int index = (int) (now & SLOT_MASK);
+        if (index == 0) {
+            // Lower levels wrapped around, bring the next slot of each one down
+            int level = 1;
+            while (level < LEVELS && cascade(level * SLOTS + slotOf(now, level)) == 0) {
+                level++;
+            }
+            if (level == LEVELS) { // the top level wrapped around too
+                cascade(OVERFLOW);
+            }
+        }
+        run(index);
+    }
+
+    // Re-place the timers of a bucket, returns the slot index of that bucket within its level
+    private int cascade(int bucket) {
+        Timer timer = buckets[bucket];
+        buckets[bucket] = null;
+        while (timer != null) {
+            Timer next = timer.next;
+            place(timer);
+            timer = next;
+        }
+        return bucket == OVERFLOW ? 0 : bucket & SLOT_MASK;
+    }
+
+    // Run the level 0 slot of the current unit in sequence order
+    private void run(int index) {
+        int count = 0;
+        for (Timer timer = buckets[index]; timer != null; timer = timer.next) {
+            if (count == firing.length) {
+                firing = Arrays.copyOf(firing, count * 2);
+            }
+            firing[count++] = timer;
+        }
+        if (count == 0) {
+            return;
+        }
+        buckets[index] = null;
+        for (int i = 0; i < count; i++) {
+            Timer timer = firing[i];
+            timer.prev = timer.next = null;
+            timer.bucket = FIRING;
+            // Insertion sort by sequence, there are only ever a few
+            int j = i;
+            while (j > 0 && firing[j - 1].seq > timer.seq) {
+                firing[j] = firing[j - 1];
+                j--;
+            }
+            firing[j] = timer;
+        }
+        for (int i = 0; i < count; i++) {
+            Timer timer = firing[i];
+            firing[i] = null;
+            if (timer.bucket == FIRING) { // not cancelled by an earlier one
+                timer.bucket = IDLE;
+                timer.due = -1;
+                timer.action.run();
+            }
+        }
+    }
+
+    private static int slotOf(long time, int level) {
+        return (int) ((time >>> (SLOT_BITS * level)) & SLOT_MASK);
+    }
+
+    // ==================== TIMERS ====================
+
+    /**
+     * Run the timer after the given seconds of wheel time (at least one unit), replacing any earlier schedule
+     */
+    public void schedule(Timer timer, double seconds) {
+        scheduleAt(timer, now + Math.max(1, toUnits(seconds)), nextSeq++);
+    }
+
+    /**
+     * Put a timer back at a saved wheel time and sequence (snapshot loading)
+     */
+    void scheduleAt(Timer timer, long due, long seq) {
+        cancel(timer);
+        timer.due = Math.max(due, now + 1);
+        timer.seq = seq;
+        place(timer);
+    }
+
+    public void cancel(Timer timer) {
+        if (timer.bucket >= 0) {
+            if (timer.prev != null) {
+                timer.prev.next = timer.next;
+            } else {
+                buckets[timer.bucket] = timer.next;
+            }
+            if (timer.next != null) {
+                timer.next.prev = timer.prev;
+            }
+            timer.prev = timer.next = null;
+        }
+        timer.bucket = IDLE;
+        timer.due = -1;
+    }
+
+    private void place(Timer timer) {
+        long delta = timer.due - now;
+        int bucket = OVERFLOW;
+        for (int level = 0; level < LEVELS; level++) {
+            if (delta < 1L << (SLOT_BITS * (level + 1))) {
+                bucket = level * SLOTS + slotOf(timer.due, level);
+                break;
+            }
+        }
+        timer.bucket = bucket;
+        timer.prev = null;
+        timer.next = buckets[bucket];
+        if (timer.next != null) {
+            timer.next.prev = timer;
+        }
+        buckets[bucket] = timer;
+    }
+
+    // ==================== STATE ====================
+
+    public long getNextSeq() {
+        return nextSeq;
+    }
+
+    /**
+     * Continue from a saved wheel time (snapshot loading, after clear)
+     */
+    void restore(long now, long nextSeq) {
+        this.now = now;
+        this.tickStart = now;
+        this.nextSeq = nextSeq;
+    }
+
+    /**
+     * Drop every timer and start over at time 0 (new match)
+     */
+    public void clear() {
+        for (int i = 0; i < buckets.length; i++) {
+            Timer timer = buckets[i];
+            while (timer != null) {
+                Timer next = timer.next;
+                timer.prev = timer.next = null;
+                timer.bucket = IDLE;
+                timer.due = -1;
+                timer = next;
+            }
+            buckets[i] = null;
+        }
+        now = 0;
+        tickStart = 0;
+        nextSeq = 0;
+        rate = UNITS_PER_TICK;
+    }
+}
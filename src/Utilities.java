@@ -3,6 +3,8 @@ import java.awt.image.BufferedImage;
 import javax.imageio.ImageIO;
 import java.io.File;
 import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 // cmd to convert gif to png frames at 60 fps
 // ffmpeg -i INPUTNAME.mov -r 60 FRAMENAME%03d.png
@@ -14,7 +16,47 @@ public class Utilities {
     
     // Font cache to avoid reloading fonts
     private static java.util.HashMap<String, java.awt.Font> fontCache = new java.util.HashMap<>();
+
+    // Sprite and animation frame caches (decoded, scaled and converted once)
+    private static final Map<SpriteKey, BufferedImage> spriteCache = new ConcurrentHashMap<>();
+    private static final Map<String, BufferedImage[]> animCache = new ConcurrentHashMap<>();
+    private static final Map<SpriteKey, BufferedImage[]> scaledAnimCache = new ConcurrentHashMap<>();
+
+    // Image name and scale
+    private static final class SpriteKey {
+        final String name;
+        final double scaleX, scaleY;
+
+        SpriteKey(String name, double scaleX, double scaleY) {
+            this.name = name;
+            this.scaleX = scaleX;
+            this.scaleY = scaleY;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof SpriteKey)) {
+                return false;
+            }
+            SpriteKey k = (SpriteKey) o;
+            return scaleX == k.scaleX && scaleY == k.scaleY && name.equals(k.name);
+        }
+
+        @Override
+        public int hashCode() {
+            return (name.hashCode() * 31 + Double.hashCode(scaleX)) * 31 + Double.hashCode(scaleY);
+        }
+    }
+
+    /**
+     * Image by name, scaled and converted to the display's format once, then shared
+     * (callers must not draw into it)
+     */
     public static BufferedImage load(String name, double scaleX, double scaleY) {
+        return spriteCache.computeIfAbsent(new SpriteKey(name, scaleX, scaleY), key -> read(name, scaleX, scaleY));
+    }
+
+    private static BufferedImage read(String name, double scaleX, double scaleY) {
         BufferedImage image = null;
         try {
             // Try to load the specific image first
@@ -28,11 +70,32 @@ public class Utilities {
                 System.err.println("Default image also not found.");
             }
         }
+        return scaled(image, scaleX, scaleY);
+    }
+
+    /**
+     * Translucent image in the format the screen blits fastest: compatible with
+     * the default screen configuration, or premultiplied ARGB when headless
+     */
+    public static BufferedImage createCompatibleImage(int width, int height) {
+        BufferedImage image;
+        if (GraphicsEnvironment.isHeadless()) {
+            image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+        } else {
+            GraphicsConfiguration config = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+                    .getDefaultConfiguration();
+            image = config.createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+        }
+        image.setAccelerationPriority(1.0f); // blitted every frame, worth caching in video memory
+        return image;
+    }
+
+    // Scaled copy of the image in the compatible format
+    private static BufferedImage scaled(BufferedImage image, double scaleX, double scaleY) {
         int width = Math.max(1, (int)(image.getWidth() * scaleX));
         int height = Math.max(1, (int)(image.getHeight() * scaleY));
 
-        // Create scaled image
-        BufferedImage scaledImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        BufferedImage scaledImage = createCompatibleImage(width, height);
         java.awt.Graphics2D g2d = scaledImage.createGraphics();
         g2d.drawImage(image, 0, 0, width, height, null);
         g2d.dispose();
@@ -40,12 +103,42 @@ public class Utilities {
         return scaledImage;
     }
 
-    public static class Animation {
+    // Frames name001.png, name002.png, ... of an animation, until the first missing one
+    private static BufferedImage[] animFrames(String name) {
+        return animCache.computeIfAbsent(name, key -> {
+            java.util.List<BufferedImage> frames = new java.util.ArrayList<>();
+            while (true) {
+                String frameName = name + String.format("%03d", frames.size() + 1);
+                try {
+                    frames.add(ImageIO.read(new File(animPath + name + "/" + frameName + ".png")));
+                } catch (IOException e) {
+                    break;
+                }
+            }
+            return frames.toArray(new BufferedImage[0]);
+        });
+    }
+
+    // The animation's frames, scaled and converted once per scale
+    private static BufferedImage[] scaledAnimFrames(String name, double scaleX, double scaleY) {
+        return scaledAnimCache.computeIfAbsent(new SpriteKey(name, scaleX, scaleY), key -> {
+            BufferedImage[] frames = animFrames(name);
+            BufferedImage[] scaledFrames = new BufferedImage[frames.length];
+            for (int i = 0; i < frames.length; i++) {
+                scaledFrames[i] = scaled(frames[i], scaleX, scaleY);
+            }
+            return scaledFrames;
+        });
+    }
+
+    public static final class Animation {
         private Instance parent;
         private String name;
         private int x, y;
         private double scaleX, scaleY;
         private int currentFrame = 1;
+        private final int frameCount;
+        private BufferedImage[] frames; // scaled, resolved on first render
         private boolean alive = true;
         private boolean loop = false;
         private double frameTimer = 0.0;
@@ -59,6 +152,7 @@ public class Utilities {
             this.scaleY = scaleY;
             this.parent = parent;
             this.loop = loop;
+            this.frameCount = animFrames(name).length;
             parent.anims.add(this);
         }
 
@@ -74,18 +168,13 @@ public class Utilities {
                 frameTimer -= FRAME_DURATION;
                 
                 // Check if next frame exists
-                String nextFrameName = name + String.format("%03d", currentFrame + 1);
-                try {
-                    ImageIO.read(new File(animPath + name + "/" + nextFrameName + ".png"));
-                    // Next frame exists, increment
+                if (currentFrame + 1 <= frameCount) {
                     currentFrame++;
-                } catch (IOException e) {
-                    if (loop) {
-                        currentFrame = 1; // Loop back to first frame
-                    } else {
-                        alive = false;
-                        break;
-                    }
+                } else if (loop) {
+                    currentFrame = 1; // Loop back to first frame
+                } else {
+                    alive = false;
+                    break;
                 }
             }
         }
@@ -93,27 +182,18 @@ public class Utilities {
         public void render(java.awt.Graphics2D g) {
             if (!alive) return;
 
-            // Load and render current frame
-            String frameName = name + String.format("%03d", currentFrame);
-            try {
-            BufferedImage frame = ImageIO.read(new File(animPath + name + "/" + frameName + ".png"));
-
-            // Scale the frame
-            int width = Math.max(1, (int)(frame.getWidth() * scaleX));
-            int height = Math.max(1, (int)(frame.getHeight() * scaleY));
-
-            BufferedImage scaledFrame = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
-            java.awt.Graphics2D g2d = scaledFrame.createGraphics();
-            g2d.drawImage(frame, 0, 0, width, height, null);
-            g2d.dispose();
+            if (currentFrame > frameCount) {
+                // Frame doesn't exist, mark as dead
+                alive = false;
+                return;
+            }
+            if (frames == null) {
+                frames = scaledAnimFrames(name, scaleX, scaleY);
+            }
+            BufferedImage frame = frames[currentFrame - 1];
 
             // Draw at specified position
-            g.drawImage(scaledFrame, x - scaledFrame.getWidth() / 2, y - scaledFrame.getHeight() / 2, null);
-
-            } catch (IOException e) {
-            // Frame doesn't exist, mark as dead
-            alive = false;
-            }
+            g.drawImage(frame, x - frame.getWidth() / 2, y - frame.getHeight() / 2, null);
         }
 
         public boolean isAlive() {